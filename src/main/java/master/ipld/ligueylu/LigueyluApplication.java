@@ -2,8 +2,10 @@ package master.ipld.ligueylu;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LigueyluApplication {
 
 	public static void main(String[] args) {
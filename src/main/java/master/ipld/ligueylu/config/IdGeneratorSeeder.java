@@ -0,0 +1,54 @@
+package master.ipld.ligueylu.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.model.IdGeneration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Les identifiants deja attribues par les colonnes AUTO_INCREMENT doivent rester hors de portee
+ * du generateur par table : au demarrage, chaque compteur est porte au-dela du MAX(id) existant.
+ * L'EntityManagerFactory est injectee pour que le schema (dont {@value IdGeneration#TABLE})
+ * soit a jour avant ce controle.
+ */
+@Slf4j
+@Component
+public class IdGeneratorSeeder {
+    // segment du generateur -> table portant les identifiants
+    private static final List<String> SEGMENTS = List.of(
+            "utilisateur", "reservation", "notification", "paiement",
+            "specialite", "service", "evaluation", "adresse", "notification_outbox");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorSeeder(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        for (String segment : SEGMENTS) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + segment, Long.class);
+            long next = (maxId == null ? 0 : maxId) + 1;
+            Long current = jdbcTemplate.query(
+                    "SELECT " + IdGeneration.VALUE_COLUMN + " FROM " + IdGeneration.TABLE + " WHERE " + IdGeneration.PK_COLUMN + " = ?",
+                    rs -> rs.next() ? rs.getLong(1) : null, segment);
+            if (current == null) {
+                jdbcTemplate.update(
+                        "INSERT INTO " + IdGeneration.TABLE + " (" + IdGeneration.PK_COLUMN + ", " + IdGeneration.VALUE_COLUMN + ") VALUES (?, ?)",
+                        segment, next);
+            } else if (current < next) {
+                jdbcTemplate.update(
+                        "UPDATE " + IdGeneration.TABLE + " SET " + IdGeneration.VALUE_COLUMN + " = ? WHERE " + IdGeneration.PK_COLUMN + " = ?",
+                        next, segment);
+            } else {
+                continue;
+            }
+            log.debug("Generateur {} positionne a partir de {}", segment, next);
+        }
+    }
+}
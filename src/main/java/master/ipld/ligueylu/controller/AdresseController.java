@@ -1,11 +1,13 @@
 package master.ipld.ligueylu.controller;
 import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.dto.AdresseDto;
 import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
 import master.ipld.ligueylu.exception.ResourceNotFoundException;
 import master.ipld.ligueylu.model.Adresse;
 import master.ipld.ligueylu.request.AddAdresseRequest;
 import master.ipld.ligueylu.request.AdresseUpdateRequest;
 import master.ipld.ligueylu.response.ApiResponse;
+import master.ipld.ligueylu.response.CursorPage;
 import master.ipld.ligueylu.service.adresse.IAdresseService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,9 +22,10 @@ public class AdresseController {
     private final IAdresseService adresseService;
 
    @GetMapping
-    public ResponseEntity<ApiResponse> getAllAdresses() {
+    public ResponseEntity<ApiResponse> getAllAdresses(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit) {
         try {
-            List<Adresse> adresses = adresseService.getAllAdresses();
+            CursorPage<AdresseDto> adresses = adresseService.getAdresses(cursor, limit);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Found",
@@ -39,7 +42,7 @@ public class AdresseController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getAdresseById(@PathVariable Long id) {
         try{
-            Adresse adresse = adresseService.getAdresseById(id);
+            AdresseDto adresse = adresseService.getAdresseDtoById(id);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Found",
@@ -128,9 +131,9 @@ public class AdresseController {
         }
     }
     @GetMapping("/by/ville")
-    public ResponseEntity<ApiResponse> getAdresseByVille(@PathVariable String ville) {
+    public ResponseEntity<ApiResponse> getAdresseByVille(@RequestParam String ville) {
        try{
-          List<Adresse> adresses = adresseService.getAdressesByVille(ville);
+          List<AdresseDto> adresses = adresseService.getAdressesByVille(ville);
           return ResponseEntity.ok(new ApiResponse(
                   true,
                   "List of Adress By City",
@@ -145,9 +148,9 @@ public class AdresseController {
        }
     }
     @GetMapping("/by/ville-rue")
-    public ResponseEntity<ApiResponse> getAdresseByVille(@PathVariable String ville, @PathVariable String rue) {
+    public ResponseEntity<ApiResponse> getAdresseByVille(@RequestParam String ville, @RequestParam String rue) {
         try{
-            List<Adresse> adresses = adresseService.getAdressesByVilleAndRue(ville, rue);
+            List<AdresseDto> adresses = adresseService.getAdressesByVilleAndRue(ville, rue);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "List of Adress By City And Rue",
@@ -0,0 +1,35 @@
+package master.ipld.ligueylu.controller;
+
+import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.service.dashboard.DashboardFeed;
+import master.ipld.ligueylu.service.dashboard.DashboardStreams;
+import master.ipld.ligueylu.service.notification.NotificationMessage;
+import master.ipld.ligueylu.service.security.AuthenticatedUser;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/dashboard")
+public class DashboardController {
+    private final DashboardStreams dashboardStreams;
+    private final DashboardFeed dashboardFeed;
+
+    /**
+     * Flux des evenements du prestataire connecte (reservations creees ou annulees, paiements).
+     * A la reconnexion, le navigateur renvoie {@code Last-Event-ID} et les evenements manques sont rejoues.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal AuthenticatedUser user,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        List<NotificationMessage> backlog = dashboardFeed.replay(user.id(), lastEventId);
+        return dashboardStreams.subscribe(user.id(), backlog == null ? List.of() : backlog, backlog == null);
+    }
+}
@@ -0,0 +1,62 @@
+package master.ipld.ligueylu.controller;
+
+import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.dto.EvaluationStatsDto;
+import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
+import master.ipld.ligueylu.exception.ResourceNotFoundException;
+import master.ipld.ligueylu.model.Evaluation;
+import master.ipld.ligueylu.request.AddEvaluationRequest;
+import master.ipld.ligueylu.response.ApiResponse;
+import master.ipld.ligueylu.service.evaluation.IEvaluationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/evaluations")
+public class EvaluationController {
+    private final IEvaluationService evaluationService;
+
+    @PostMapping("/add/")
+    public ResponseEntity<ApiResponse> addEvaluation(@RequestBody AddEvaluationRequest request) {
+        try {
+            Evaluation evaluation = evaluationService.addEvaluation(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse(
+                    true,
+                    "Evaluation enregistree avec success",
+                    evaluation
+            ));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
+                    false,
+                    e.getMessage(),
+                    null
+            ));
+        } catch (ResourceAlreadyExistException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(
+                    false,
+                    e.getMessage(),
+                    null
+            ));
+        }
+    }
+
+    @GetMapping("/prestataire/{id}")
+    public ResponseEntity<ApiResponse> getStats(@PathVariable Long id) {
+        try {
+            EvaluationStatsDto stats = evaluationService.getStats(id);
+            return ResponseEntity.ok(new ApiResponse(
+                    true,
+                    "Evaluations du prestataire",
+                    stats
+            ));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
+                    false,
+                    e.getMessage(),
+                    null
+            ));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package master.ipld.ligueylu.controller;
+
+import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.service.export.IExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/export")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final IExportService exportService;
+
+    @FunctionalInterface
+    private interface Exporter {
+        void export(OutputStream out) throws IOException;
+    }
+
+    @GetMapping("/prestataires")
+    public ResponseEntity<StreamingResponseBody> exportPrestataires(@RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("prestataires", gzip, exportService::exportPrestataires);
+    }
+
+    @GetMapping("/reservations")
+    public ResponseEntity<StreamingResponseBody> exportReservations(@RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("reservations", gzip, exportService::exportReservations);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, boolean gzip, Exporter exporter) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + (gzip ? ".ndjson.gz\"" : ".ndjson\""));
+        if (!gzip) {
+            return response.body(exporter::export);
+        }
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    exporter.export(compressed);
+                    compressed.finish();
+                });
+    }
+}
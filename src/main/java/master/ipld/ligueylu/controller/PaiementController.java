@@ -0,0 +1,36 @@
+package master.ipld.ligueylu.controller;
+
+import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.exception.ResourceNotFoundException;
+import master.ipld.ligueylu.model.Paiement;
+import master.ipld.ligueylu.model.enums.Status;
+import master.ipld.ligueylu.response.ApiResponse;
+import master.ipld.ligueylu.service.paiement.IPaiementService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/paiements")
+public class PaiementController {
+    private final IPaiementService paiementService;
+
+    @PutMapping("/{id}/status")
+    public ResponseEntity<ApiResponse> changerStatus(@PathVariable Long id, @RequestParam Status status) {
+        try {
+            Paiement paiement = paiementService.changerStatus(id, status);
+            return ResponseEntity.ok(new ApiResponse(
+                    true,
+                    "Statut du paiement mis a jour",
+                    paiement
+            ));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
+                    false,
+                    e.getMessage(),
+                    null
+            ));
+        }
+    }
+}
@@ -1,17 +1,34 @@
 package master.ipld.ligueylu.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.dto.ClassementDto;
+import master.ipld.ligueylu.dto.NearbyPrestataireDto;
+import master.ipld.ligueylu.dto.PrestataireDto;
+import master.ipld.ligueylu.dto.ReservationDto;
+import master.ipld.ligueylu.dto.ServiceDto;
+import master.ipld.ligueylu.dto.SpecialiteDto;
+import master.ipld.ligueylu.dto.SuggestionDto;
 import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
 import master.ipld.ligueylu.exception.ResourceNotFoundException;
+import master.ipld.ligueylu.exception.ServiceOverloadedException;
 import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.model.Reservation;
 import master.ipld.ligueylu.model.Specialite;
 import master.ipld.ligueylu.request.*;
 import master.ipld.ligueylu.response.ApiResponse;
+import master.ipld.ligueylu.response.CursorPage;
+import master.ipld.ligueylu.response.ImportReport;
+import master.ipld.ligueylu.service.prestataire.IPrestataireImportService;
 import master.ipld.ligueylu.service.prestataire.IPrestataireService;
+import master.ipld.ligueylu.service.prestataire.PrestataireImportReader;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,11 +39,13 @@ import java.util.Set;
 @RequestMapping("${api.prefix}/prestataires")
 public class PrestataireController {
     private final IPrestataireService prestataireService;
+    private final IPrestataireImportService prestataireImportService;
 
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllPrestataires() {
+    public ResponseEntity<ApiResponse> getAllPrestataires(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
         try {
-            List<Prestataire> prestataires = prestataireService.getAllPrestataire();
+            CursorPage<PrestataireDto> prestataires = prestataireService.getPrestataires(cursor, limit);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Liste des prestataires : ",
@@ -43,7 +62,7 @@ public class PrestataireController {
     @GetMapping("/email/{email}")
     public ResponseEntity<ApiResponse> getPrestataireByEmail(@PathVariable String email) {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireByEmail(email);
+            PrestataireDto prestataire = prestataireService.getPrestataireDtoByEmail(email);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Prestataire trouvé !",
@@ -61,7 +80,7 @@ public class PrestataireController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getPrestataireById(@PathVariable Long id) {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(id);
+            PrestataireDto prestataire = prestataireService.getPrestataireDtoById(id);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Prestataire trouvé !",
@@ -100,6 +119,10 @@ public class PrestataireController {
                     null
             ));
         }
+        catch (ServiceOverloadedException e){
+            // GlobalExceptionHandler repond 503 avec Retry-After
+            throw e;
+        }
         catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(
                     false,
@@ -123,6 +146,9 @@ public class PrestataireController {
                     e.getMessage(),
                     null
             ));
+        }catch (ServiceOverloadedException e) {
+            // GlobalExceptionHandler repond 503 avec Retry-After
+            throw e;
         }catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(
                     false,
@@ -149,6 +175,18 @@ public class PrestataireController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ApiResponse> importPrestataires(HttpServletRequest request) throws IOException {
+        PrestataireImportReader.Format format = request.getContentType().startsWith("text/csv")
+                ? PrestataireImportReader.Format.CSV
+                : PrestataireImportReader.Format.NDJSON;
+        ImportReport report = prestataireImportService.importPrestataires(request.getInputStream(), format);
+        return ResponseEntity.ok(new ApiResponse(
+                report.getLignesRejetees() == 0,
+                report.getLignesImportees() + " prestataires importes, " + report.getLignesRejetees() + " lignes rejetees",
+                report
+        ));
+    }
     @GetMapping("/stats/specialites")
     public ResponseEntity<ApiResponse> countBySpecialite() {
         Map<String, Long> data = prestataireService.countPrestatairesBySpecialite();
@@ -176,8 +214,7 @@ public class PrestataireController {
     @GetMapping("/activate/{id}")
     public ResponseEntity<ApiResponse> activatePrestataire(@PathVariable Long id) {
         try {
-            Prestataire prestataire = prestataireService.getPrestataireById(id);
-            boolean activated = prestataireService.activatePrestataire(id);
+            Prestataire prestataire = prestataireService.activatePrestataire(id);
 
             return ResponseEntity.ok(new ApiResponse(
                     true,
@@ -194,7 +231,7 @@ public class PrestataireController {
     }
     @GetMapping("/search/{specialite}")
     public ResponseEntity<ApiResponse> searchPrestataireBySpecialite(@PathVariable String specialite) {
-        List<Prestataire> prestataires = prestataireService.searchBySpecialite(specialite);
+        List<PrestataireDto> prestataires = prestataireService.searchBySpecialite(specialite);
 
         if (prestataires.isEmpty()) {
             return ResponseEntity.ok(new ApiResponse(
@@ -210,9 +247,70 @@ public class PrestataireController {
                 prestataires
         ));
     }
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse> suggest(@RequestParam String q,
+                                               @RequestParam(required = false) Integer limit) {
+        List<SuggestionDto> suggestions = prestataireService.suggest(q, limit);
+        return ResponseEntity.ok(new ApiResponse(
+                true,
+                "Suggestions pour : " + q,
+                suggestions
+        ));
+    }
+    @GetMapping("/nearby")
+    public ResponseEntity<ApiResponse> findNearby(@RequestParam double lat,
+                                                  @RequestParam double lon,
+                                                  @RequestParam(required = false) Double radius,
+                                                  @RequestParam(required = false) String specialite,
+                                                  @RequestParam(required = false) Integer limit) {
+        List<NearbyPrestataireDto> prestataires = prestataireService.findNearby(lat, lon, radius, specialite, limit);
+        return ResponseEntity.ok(new ApiResponse(
+                true,
+                prestataires.isEmpty() ? "Aucun prestataire trouvé à proximité" : "Prestataires à proximité",
+                prestataires
+        ));
+    }
+    @GetMapping("/disponibles")
+    public ResponseEntity<ApiResponse> findDisponibles(@RequestParam String specialite,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime debut,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+                                                       @RequestParam(required = false) Integer limit) {
+        List<PrestataireDto> prestataires = prestataireService.findDisponibles(specialite, debut, fin, limit);
+        return ResponseEntity.ok(new ApiResponse(
+                true,
+                prestataires.isEmpty() ? "Aucun prestataire disponible sur ce créneau" : "Prestataires disponibles",
+                prestataires
+        ));
+    }
+    @GetMapping("/classement/top")
+    public ResponseEntity<ApiResponse> getTopPrestataires(@RequestParam(required = false) Integer limit) {
+        List<PrestataireDto> prestataires = prestataireService.getTopPrestataires(limit);
+        return ResponseEntity.ok(new ApiResponse(
+                true,
+                "Meilleurs prestataires",
+                prestataires
+        ));
+    }
+    @GetMapping("/classement/{id}")
+    public ResponseEntity<ApiResponse> getClassement(@PathVariable Long id) {
+        try {
+            ClassementDto classement = prestataireService.getClassement(id);
+            return ResponseEntity.ok(new ApiResponse(
+                    true,
+                    "Classement du prestataire",
+                    classement
+            ));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
+                    false,
+                    e.getMessage(),
+                    null
+            ));
+        }
+    }
     @GetMapping("/search/adresses/{ville}")
     public ResponseEntity<ApiResponse> searchPrestataireByVille(@PathVariable String ville) {
-        Optional<Prestataire> prestataires = prestataireService.findByAdresse(ville);
+        List<PrestataireDto> prestataires = prestataireService.findByAdresse(ville);
         if(prestataires.isEmpty()) {
             return ResponseEntity.ok(new ApiResponse(
                     true,
@@ -227,9 +325,11 @@ public class PrestataireController {
         ));
     }
     @GetMapping("/search/score/{score}")
-    public ResponseEntity<ApiResponse> findByScoreGreaterThan(@PathVariable double score) {
-        List<Prestataire> prestataires = prestataireService.findByScoreGreaterThan(score);
-        if (prestataires.isEmpty()) {
+    public ResponseEntity<ApiResponse> findByScoreGreaterThan(@PathVariable double score,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        CursorPage<PrestataireDto> prestataires = prestataireService.findByScoreGreaterThan(score, cursor, limit);
+        if (prestataires.getItems().isEmpty()) {
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Aucun prestataire trouvé avec un score : " + score,
@@ -246,8 +346,7 @@ public class PrestataireController {
     @PutMapping("/score/")
     public ResponseEntity<ApiResponse> updatePrestataireScore(@RequestBody ScoreUpdateRequest request) {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
-            prestataireService.updateScore(request);
+            Prestataire prestataire = prestataireService.updateScore(request);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Score mis a jour avec success",
@@ -264,8 +363,7 @@ public class PrestataireController {
     @PutMapping("/adress/update/")
     public ResponseEntity<ApiResponse> updatePrestataireAdresse(@RequestBody UpdateAdressPrestRequest request) {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
-            prestataireService.updateAdressePrestataire(request);
+            Prestataire prestataire = prestataireService.updateAdressePrestataire(request);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Adresse du prestatataire mis a jour avec success",
@@ -282,8 +380,7 @@ public class PrestataireController {
     @PostMapping("/specialite/add/")
     public ResponseEntity<ApiResponse> addPrestataireSpecialite(@RequestBody AddSpecialitePrestRequest request) {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
-            prestataireService.addSpecialiteToPrestataire(request);
+            Prestataire prestataire = prestataireService.addSpecialiteToPrestataire(request);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Ajout avec success de la specialite",
@@ -302,8 +399,7 @@ public class PrestataireController {
     public ResponseEntity<ApiResponse> removePrestataireSpecialite(@RequestBody AddSpecialitePrestRequest request)
     {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
-            prestataireService.removeSpecialiteToPrestataire(request);
+            Prestataire prestataire = prestataireService.removeSpecialiteToPrestataire(request);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Specialite supprimé avec success :",
@@ -322,8 +418,7 @@ public class PrestataireController {
     @GetMapping("/specialite/prestataire/{id}")
     public ResponseEntity<ApiResponse> getSpecialiteFromPrestataire(@PathVariable Long id){
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(id);
-            Set<Specialite> specialite = prestataireService.getSpecialitesFromPrestataire(id);
+            List<SpecialiteDto> specialite = prestataireService.getSpecialitesFromPrestataire(id);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Liste des specialites : ",
@@ -337,11 +432,28 @@ public class PrestataireController {
             ));
         }
     }
+    @GetMapping("/service/prestataire/{id}")
+    public ResponseEntity<ApiResponse> getServicesFromPrestataire(@PathVariable Long id){
+        try{
+            List<ServiceDto> services = prestataireService.getServicesByPrestataire(id);
+            return ResponseEntity.ok(new ApiResponse(
+                    true,
+                    "Liste des services : ",
+                    services
+            ));
+        }catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
+                    false,
+                    e.getMessage(),
+                    null
+            ));
+        }
+    }
     @PostMapping("/service/add/")
     public ResponseEntity<ApiResponse> addPrestataireService(@RequestBody AddServicePrestRequest request) {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
             prestataireService.addServiceToPrestataire(request);
+            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Ajout avec success du service",
@@ -360,8 +472,7 @@ public class PrestataireController {
     public ResponseEntity<ApiResponse> removePrestataireService(@RequestBody AddServicePrestRequest request)
     {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
-            prestataireService.removeServiceFromPrestataire(request);
+            Prestataire prestataire = prestataireService.removeServiceFromPrestataire(request);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Service quitter avec success",
@@ -376,16 +487,34 @@ public class PrestataireController {
         }
 
 
+    }
+    @GetMapping("/reservation/prestataire/{id}")
+    public ResponseEntity<ApiResponse> getReservationsFromPrestataire(@PathVariable Long id,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit){
+        try{
+            CursorPage<ReservationDto> reservations = prestataireService.getReservationsByPrestataire(id, cursor, limit);
+            return ResponseEntity.ok(new ApiResponse(
+                    true,
+                    "Liste des reservations : ",
+                    reservations
+            ));
+        }catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
+                    false,
+                    e.getMessage(),
+                    null
+            ));
+        }
     }
     @PostMapping("/reservation/add/")
     public ResponseEntity<ApiResponse> addPrestataireReservation(@RequestBody AddReservationPrestRequest request) {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
-            prestataireService.addReservationToPrestataire(request);
+            Reservation reservation = prestataireService.addReservationToPrestataire(request);
             return ResponseEntity.ok(new ApiResponse(
                     true,
                     "Ajout avec success de la reservation",
-                    prestataire
+                    reservation
             ));
         }catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
@@ -400,12 +529,11 @@ public class PrestataireController {
     public ResponseEntity<ApiResponse> removePrestataireReservation(@RequestBody AddReservationPrestRequest request)
     {
         try{
-            Prestataire prestataire = prestataireService.getPrestataireById(request.getPrestataireId());
             prestataireService.cancelReservation(request);
             return ResponseEntity.ok(new ApiResponse(
                     true,
-                    "Ajout avec success de la reservation",
-                    prestataire
+                    "Annulation avec success de la reservation",
+                    null
             ));
         }catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(
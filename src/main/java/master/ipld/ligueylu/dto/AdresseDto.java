@@ -1,13 +1,19 @@
 package master.ipld.ligueylu.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class AdresseDto {
     private Long id;
-    private String numero;
+    private int numero;
     private String ville;
     private String rue;
     private String codePostal;
     private String pays;
+    private Double latitude;
+    private Double longitude;
 }
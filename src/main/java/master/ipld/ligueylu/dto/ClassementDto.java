@@ -0,0 +1,15 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClassementDto {
+    private Long prestataireId;
+    private double score;
+    private int rang;
+    private int total;
+}
@@ -0,0 +1,15 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EvaluationStatsDto {
+    private Long prestataireId;
+    private long nombreEvaluations;
+    private double sommeNotes;
+    private double score;
+}
@@ -0,0 +1,13 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyPrestataireDto {
+    private PrestataireDto prestataire;
+    private double distanceKm;
+}
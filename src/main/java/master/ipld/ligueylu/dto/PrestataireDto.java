@@ -0,0 +1,19 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PrestataireDto {
+    private Long id;
+    private String nomComplet;
+    private String email;
+    private String telephone;
+    private boolean actif;
+    private double score;
+}
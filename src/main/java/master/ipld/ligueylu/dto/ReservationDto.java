@@ -0,0 +1,21 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import master.ipld.ligueylu.model.enums.TypeService;
+import master.ipld.ligueylu.model.enums.Status;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationDto {
+    private Long id;
+    private String libelle;
+    private TypeService typeService;
+    private String description;
+    private Status status;
+    private Date creationDate;
+}
@@ -0,0 +1,17 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import master.ipld.ligueylu.model.enums.TypeService;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ServiceDto {
+    private Long id;
+    private TypeService typeService;
+    private int duree;
+    private double tarifStandard;
+    private String description;
+}
@@ -0,0 +1,15 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpecialiteDto {
+    private Long id;
+    private String libelle;
+    private String description;
+    private int anneeExperience;
+}
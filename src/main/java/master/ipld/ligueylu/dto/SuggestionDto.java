@@ -0,0 +1,17 @@
+package master.ipld.ligueylu.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionDto {
+    public static final String PRESTATAIRE = "PRESTATAIRE";
+    public static final String SPECIALITE = "SPECIALITE";
+
+    private String type;
+    private Long prestataireId;
+    private String label;
+}
@@ -0,0 +1,16 @@
+package master.ipld.ligueylu.dto;
+
+import master.ipld.ligueylu.model.enums.Role;
+
+/**
+ * Projection minimale d'un utilisateur pour l'authentification :
+ * lue directement sur la table {@code utilisateur}, sans les tables filles.
+ */
+public interface UtilisateurCredentials {
+    Long getId();
+    String getEmail();
+    String getPassword();
+    Role getRole();
+    boolean isActif();
+    int getTokenVersion();
+}
@@ -0,0 +1,7 @@
+package master.ipld.ligueylu.exception;
+
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
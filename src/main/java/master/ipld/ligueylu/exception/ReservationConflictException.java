@@ -0,0 +1,7 @@
+package master.ipld.ligueylu.exception;
+
+public class ReservationConflictException extends RuntimeException {
+    public ReservationConflictException(String message) {
+        super(message);
+    }
+}
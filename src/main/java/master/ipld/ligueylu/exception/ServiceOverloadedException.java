@@ -0,0 +1,7 @@
+package master.ipld.ligueylu.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -17,7 +17,10 @@ import java.util.List;
 @Entity
 public class Adresse {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "adresse_id")
+    @TableGenerator(name = "adresse_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "adresse",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
 
     @Pattern(
@@ -30,6 +33,8 @@ public class Adresse {
     private String rue;
     private String codePostal;
     private String pays;
+    private Double latitude;
+    private Double longitude;
 
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "adresse", orphanRemoval = true)
     @JsonIgnore
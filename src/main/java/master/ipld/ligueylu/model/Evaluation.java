@@ -16,7 +16,10 @@ import lombok.Setter;
 @Entity
 public class Evaluation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "evaluation_id")
+    @TableGenerator(name = "evaluation_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "evaluation",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     @DecimalMin(value = "0.0", inclusive = true, message = "Le score doit être positif")
     private double score;
@@ -25,7 +28,7 @@ public class Evaluation {
 
 
     @OneToOne
-    @JoinColumn(name = "service_id")
+    @JoinColumn(name = "service_id", unique = true)
     @JsonIgnore
     private Service service;
 }
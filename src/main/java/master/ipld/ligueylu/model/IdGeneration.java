@@ -0,0 +1,17 @@
+package master.ipld.ligueylu.model;
+
+/**
+ * Parametres communs des generateurs d'identifiants. MySQL n'a pas de sequence : chaque
+ * entite racine a sa ligne dans la table {@value #TABLE}, et l'optimiseur pooled-lo reserve
+ * {@value #ALLOCATION_SIZE} identifiants par aller-retour. Contrairement a IDENTITY,
+ * l'identifiant est connu avant l'INSERT, ce qui permet a Hibernate de grouper les insertions.
+ */
+public final class IdGeneration {
+    public static final String TABLE = "id_generator";
+    public static final String PK_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGeneration() {
+    }
+}
@@ -17,7 +17,10 @@ import java.util.Date;
 @Entity
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_id")
+    @TableGenerator(name = "notification_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "notification",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private long id;
     private String libelle;
     @Size(max = 500, message = "La description ne doit pas dépasser 500 caractères.")
@@ -0,0 +1,74 @@
+package master.ipld.ligueylu.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import master.ipld.ligueylu.model.enums.StatutNotification;
+
+import java.util.Date;
+
+/**
+ * Notification a delivrer, ecrite dans la meme transaction que le changement d'etat qui la
+ * provoque. Le dispatcher la reclame ({@code verrouilleJusqua}), la delivre puis la marque
+ * envoyee ; la cle de deduplication identifie l'evenement de bout en bout.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_outbox",
+        indexes = {
+                @Index(name = "idx_outbox_statut_disponible", columnList = "statut, disponibleLe"),
+                @Index(name = "idx_outbox_cree_le", columnList = "creeLe, id"),
+                @Index(name = "idx_outbox_destinataire_cree_le", columnList = "destinataireId, creeLe")
+        })
+public class NotificationOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_outbox_id")
+    @TableGenerator(name = "notification_outbox_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "notification_outbox",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 150)
+    private String cleDeduplication;
+    @Column(nullable = false, length = 50)
+    private String type;
+    @Column(nullable = false, length = 30)
+    private String agregat;
+    private Long agregatId;
+    private Long destinataireId;
+    @Lob
+    private String contenu;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatutNotification statut;
+    private int tentatives;
+    @Column(length = 500)
+    private String derniereErreur;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creeLe;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date disponibleLe;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date verrouilleJusqua;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date envoyeLe;
+
+    public NotificationOutbox(String cleDeduplication, String type, String agregat, Long agregatId,
+                              Long destinataireId, String contenu) {
+        Date now = new Date();
+        this.cleDeduplication = cleDeduplication;
+        this.type = type;
+        this.agregat = agregat;
+        this.agregatId = agregatId;
+        this.destinataireId = destinataireId;
+        this.contenu = contenu;
+        this.statut = StatutNotification.EN_ATTENTE;
+        this.creeLe = now;
+        this.disponibleLe = now;
+    }
+}
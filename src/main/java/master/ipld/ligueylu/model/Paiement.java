@@ -19,7 +19,10 @@ import master.ipld.ligueylu.model.enums.Status;
 //Transaction @Transactional
 public class Paiement {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "paiement_id")
+    @TableGenerator(name = "paiement_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "paiement",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     @DecimalMin(value = "0.0", inclusive = true, message = "Le montant doit etre positif")
     private double montant;
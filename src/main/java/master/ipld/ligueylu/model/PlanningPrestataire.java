@@ -0,0 +1,30 @@
+package master.ipld.ligueylu.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Version de l'agenda d'un prestataire : incrementee a chaque reservation ou annulation.
+ * Deux reservations concurrentes sur le meme agenda ne peuvent pas toutes deux valider,
+ * tandis que les agendas de prestataires differents n'entrent jamais en concurrence.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class PlanningPrestataire {
+    @Id
+    private Long prestataireId;
+
+    @Version
+    private long version;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date derniereModification;
+}
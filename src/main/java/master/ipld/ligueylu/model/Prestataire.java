@@ -17,10 +17,22 @@ import java.util.Set;
 @SuperBuilder
 @NoArgsConstructor
 @Entity
+// Meme sens que ORDER BY p.score DESC, p.id ASC : MySQL 8 parcourt l'index sans tri
+@Table(indexes = @Index(name = "idx_prestataire_score_desc_id", columnList = "score DESC, id ASC"))
 public class Prestataire extends Utilisateur {
+    // Score et agregats ne sont modifies que par des UPDATE relatifs (voir PrestataireRepository) :
+    // exclus des UPDATE de l'entite, une sauvegarde d'un prestataire lu avant une evaluation ne
+    // reecrit pas des valeurs perimees par-dessus
     @DecimalMin(value = "0.0", inclusive = true, message = "Le score doit être positif")
+    @Column(updatable = false)
     private double score;
 
+    // Agregats des evaluations recues, mis a jour de facon incrementale (voir EvaluationService)
+    @Column(updatable = false)
+    private long evaluationCount;
+    @Column(updatable = false)
+    private double evaluationSum;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "adresse_id")
     @JsonIgnore
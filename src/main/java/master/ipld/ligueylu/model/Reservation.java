@@ -17,9 +17,13 @@ import java.util.Date;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_reservation_prestataire_fin", columnList = "prestataire_id, fin"))
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservation_id")
+    @TableGenerator(name = "reservation_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "reservation",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     @NotBlank
     private String libelle;
@@ -33,6 +37,15 @@ public class Reservation {
     @Temporal(TemporalType.TIMESTAMP)
     private Date creationDate;
 
+    // Creneau reserve [debut, fin)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date debut;
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date fin;
+
+    @Version
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id")
     @JsonIgnore
@@ -17,7 +17,10 @@ import master.ipld.ligueylu.model.enums.TypeService;
 @Entity
 public class Service {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "service_id")
+    @TableGenerator(name = "service_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "service",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     @Enumerated(EnumType.STRING)
     private TypeService typeService;
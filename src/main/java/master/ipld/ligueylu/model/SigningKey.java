@@ -0,0 +1,27 @@
+package master.ipld.ligueylu.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class SigningKey {
+    @Id
+    private String kid;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] secret;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date createdAt;
+}
@@ -20,7 +20,10 @@ import java.util.Set;
 @Entity
 public class Specialite {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "specialite_id")
+    @TableGenerator(name = "specialite_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "specialite",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     @NotBlank(message = "le libelle est obligatoire")
     private String libelle;
@@ -7,6 +7,8 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import master.ipld.ligueylu.dto.UtilisateurCredentials;
+import master.ipld.ligueylu.model.IdGeneration;
 import master.ipld.ligueylu.model.enums.Role;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -22,9 +24,12 @@ import java.util.Collections;
 @NoArgsConstructor
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
-public abstract class Utilisateur {
+public abstract class Utilisateur implements UtilisateurCredentials {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "utilisateur_id")
+    @TableGenerator(name = "utilisateur_id", table = IdGeneration.TABLE, pkColumnName = IdGeneration.PK_COLUMN,
+            valueColumnName = IdGeneration.VALUE_COLUMN, pkColumnValue = "utilisateur",
+            allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
     @Size(min = 3, message = "Le nom complet doit contenir au moins 3 caractères.")
     private String nomComplet;
@@ -49,4 +54,7 @@ public abstract class Utilisateur {
     )
     private String telephone;
     private boolean actif;
+
+    // Incremente pour revoquer tous les jetons emis auparavant
+    private int tokenVersion;
 }
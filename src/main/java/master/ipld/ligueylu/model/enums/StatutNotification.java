@@ -0,0 +1,7 @@
+package master.ipld.ligueylu.model.enums;
+
+public enum StatutNotification {
+    EN_ATTENTE,
+    ENVOYEE,
+    ECHEC
+}
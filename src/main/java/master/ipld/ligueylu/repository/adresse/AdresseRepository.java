@@ -1,8 +1,11 @@
 package master.ipld.ligueylu.repository.adresse;
 
 import jakarta.validation.constraints.NotBlank;
+import master.ipld.ligueylu.dto.AdresseDto;
 import master.ipld.ligueylu.model.Adresse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -16,4 +19,17 @@ public interface AdresseRepository extends JpaRepository<Adresse, Long> {
             int numero, String rue, String ville, String codePostal, String pays
     );
 
+    // Projections en lecture seule : aucune entite geree ni snapshot de dirty-checking
+    @Query("SELECT new master.ipld.ligueylu.dto.AdresseDto(a.id, a.numero, a.ville, a.rue, a.codePostal, a.pays, a.latitude, a.longitude) FROM Adresse a WHERE a.id = :id")
+    Optional<AdresseDto> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.AdresseDto(a.id, a.numero, a.ville, a.rue, a.codePostal, a.pays, a.latitude, a.longitude) FROM Adresse a WHERE a.id > :afterId ORDER BY a.id ASC")
+    List<AdresseDto> findDtoPage(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.AdresseDto(a.id, a.numero, a.ville, a.rue, a.codePostal, a.pays, a.latitude, a.longitude) FROM Adresse a WHERE a.ville = :ville")
+    List<AdresseDto> findDtoByVille(@Param("ville") String ville);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.AdresseDto(a.id, a.numero, a.ville, a.rue, a.codePostal, a.pays, a.latitude, a.longitude) FROM Adresse a WHERE a.ville = :ville AND a.rue = :rue")
+    List<AdresseDto> findDtoByVilleAndRue(@Param("ville") String ville, @Param("rue") String rue);
+
 }
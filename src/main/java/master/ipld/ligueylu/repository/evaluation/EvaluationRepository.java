@@ -1,4 +1,8 @@
 package master.ipld.ligueylu.repository.evaluation;
 
-public interface EvaluationRepository {
+import master.ipld.ligueylu.model.Evaluation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EvaluationRepository extends JpaRepository<Evaluation, Long> {
+    boolean existsByServiceId(Long serviceId);
 }
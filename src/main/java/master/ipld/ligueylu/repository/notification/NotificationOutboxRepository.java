@@ -0,0 +1,46 @@
+package master.ipld.ligueylu.repository.notification;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import master.ipld.ligueylu.model.NotificationOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    boolean existsByCleDeduplication(String cleDeduplication);
+
+    // Delai -2 (LockOptions.SKIP_LOCKED) : FOR UPDATE SKIP LOCKED, deux dispatchers ne reclament jamais les memes lignes et ne s'attendent pas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.statut = master.ipld.ligueylu.model.enums.StatutNotification.EN_ATTENTE " +
+            "AND n.disponibleLe <= :now AND (n.verrouilleJusqua IS NULL OR n.verrouilleJusqua < :now) ORDER BY n.id ASC")
+    List<NotificationOutbox> claimable(@Param("now") Date now, Limit limit);
+
+    // Queue de l'outbox, relue par chaque instance pour les tableaux de bord : pagination par cle (creeLe, id)
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.creeLe > :since OR (n.creeLe = :since AND n.id > :afterId) " +
+            "ORDER BY n.creeLe ASC, n.id ASC")
+    List<NotificationOutbox> findCreatedAfter(@Param("since") Date since, @Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.destinataireId = :destinataireId AND n.creeLe >= :since " +
+            "ORDER BY n.creeLe ASC, n.id ASC")
+    List<NotificationOutbox> findForReplay(@Param("destinataireId") Long destinataireId, @Param("since") Date since, Limit limit);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.statut = master.ipld.ligueylu.model.enums.StatutNotification.ENVOYEE, " +
+            "n.envoyeLe = :now, n.verrouilleJusqua = NULL WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") Date now);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox n WHERE n.statut = master.ipld.ligueylu.model.enums.StatutNotification.ENVOYEE " +
+            "AND n.envoyeLe < :before")
+    int purgeSentBefore(@Param("before") Date before);
+}
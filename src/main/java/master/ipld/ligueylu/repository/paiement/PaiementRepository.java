@@ -1,4 +1,7 @@
 package master.ipld.ligueylu.repository.paiement;
 
-public interface PaiementRepository {
+import master.ipld.ligueylu.model.Paiement;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PaiementRepository extends JpaRepository<Paiement, Long> {
 }
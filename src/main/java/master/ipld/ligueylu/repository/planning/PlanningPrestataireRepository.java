@@ -0,0 +1,7 @@
+package master.ipld.ligueylu.repository.planning;
+
+import master.ipld.ligueylu.model.PlanningPrestataire;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PlanningPrestataireRepository extends JpaRepository<PlanningPrestataire, Long> {
+}
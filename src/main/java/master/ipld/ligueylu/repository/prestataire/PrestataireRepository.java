@@ -1,23 +1,102 @@
 package master.ipld.ligueylu.repository.prestataire;
 
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotBlank;
+import master.ipld.ligueylu.dto.EvaluationStatsDto;
+import master.ipld.ligueylu.dto.PrestataireDto;
 import master.ipld.ligueylu.model.Prestataire;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PrestataireRepository extends JpaRepository<Prestataire, Long>
 {
     Optional<Prestataire> findByEmail(String email);
+    boolean existsByEmail(String email);
     Optional<Prestataire> findByIdAndActifTrue(Long id);
 
-    Optional<Prestataire> findByAdresse_Ville(@NotBlank String ville);
-    @Query("SELECT p FROM Prestataire p JOIN p.specialites s WHERE LOWER(s.libelle) LIKE LOWER(CONCAT('%', :nomSpecialite, '%'))")
-    List<Prestataire> findByLibelleSpecialite(@Param("nomSpecialite") String nomSpecialite);
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p JOIN p.adresse a WHERE a.ville = :ville")
+    List<PrestataireDto> findDtoByVille(@Param("ville") String ville);
+
+    String ACTIVE_COORDINATES = "SELECT p.id, a.latitude, a.longitude FROM Prestataire p JOIN p.adresse a " +
+            "WHERE p.actif = true AND a.latitude IS NOT NULL AND a.longitude IS NOT NULL";
+    @Query(ACTIVE_COORDINATES)
+    List<Object[]> findActiveCoordinates();
+
+    // Score en premiere affectation : il lit les anciens agregats, quel que soit l'ordre d'evaluation du SET
+    @Modifying
+    @Query(value = "UPDATE prestataire SET " +
+            "score = (:priorWeight * :priorMean + evaluation_sum + :note) / (:priorWeight + evaluation_count + 1), " +
+            "evaluation_count = evaluation_count + 1, " +
+            "evaluation_sum = evaluation_sum + :note " +
+            "WHERE id = :id", nativeQuery = true)
+    int applyEvaluation(@Param("id") Long id,
+                        @Param("note") double note,
+                        @Param("priorMean") double priorMean,
+                        @Param("priorWeight") double priorWeight);
+
+    // Correction manuelle du score : la colonne n'est pas ecrite par les sauvegardes de l'entite
+    @Modifying
+    @Query(value = "UPDATE prestataire SET score = :score WHERE id = :id", nativeQuery = true)
+    int updateScore(@Param("id") Long id, @Param("score") double score);
+
+    @Query("SELECT p.score FROM Prestataire p WHERE p.id = :id")
+    Optional<Double> findScoreById(@Param("id") Long id);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.EvaluationStatsDto(p.id, p.evaluationCount, p.evaluationSum, p.score) FROM Prestataire p WHERE p.id = :id")
+    Optional<EvaluationStatsDto> findEvaluationStatsById(@Param("id") Long id);
+
+    // Lecture en flux pour l'export : le curseur JDBC ramene les lignes par paquets de fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p ORDER BY p.id ASC")
+    Stream<PrestataireDto> streamAllDtos();
+
+    @Query("SELECT p.id, p.score FROM Prestataire p ORDER BY p.id")
+    List<Object[]> findAllScores();
+    @Query(ACTIVE_COORDINATES + " AND p.id = :id")
+    List<Object[]> findActiveCoordinatesById(@Param("id") Long id);
+    @Query(ACTIVE_COORDINATES + " AND a.id = :adresseId")
+    List<Object[]> findActiveCoordinatesByAdresseId(@Param("adresseId") Long adresseId);
+    @Query("SELECT DISTINCT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p JOIN p.specialites s WHERE LOWER(s.libelle) LIKE LOWER(CONCAT('%', :nomSpecialite, '%'))")
+    List<PrestataireDto> findByLibelleSpecialite(@Param("nomSpecialite") String nomSpecialite);
+    @Query("SELECT s.libelle, p.id FROM Prestataire p JOIN p.specialites s")
+    List<Object[]> findSpecialiteLibellesWithPrestataireIds();
+    @Query("SELECT p.id, p.nomComplet FROM Prestataire p")
+    List<Object[]> findAllIdsAndNames();
     @Query("SELECT s.libelle, COUNT(p) FROM Prestataire p JOIN p.specialites s GROUP BY s.libelle")
     List<Object[]> countPrestataireBySpecialites();
     List<Prestataire> findByScoreGreaterThan(double score);
+
+    // Projections en lecture seule : aucune entite geree ni snapshot de dirty-checking
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p WHERE p.id = :id")
+    Optional<PrestataireDto> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p WHERE p.email = :email")
+    Optional<PrestataireDto> findDtoByEmail(@Param("email") String email);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p WHERE p.id IN :ids")
+    List<PrestataireDto> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<PrestataireDto> findDtoPage(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p WHERE p.score > :minScore ORDER BY p.score DESC, p.id ASC")
+    List<PrestataireDto> findRankedByScore(@Param("minScore") double minScore, Limit limit);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.PrestataireDto(p.id, p.nomComplet, p.email, p.telephone, p.actif, p.score) FROM Prestataire p WHERE p.score > :minScore " +
+            "AND (p.score < :afterScore OR (p.score = :afterScore AND p.id > :afterId)) " +
+            "ORDER BY p.score DESC, p.id ASC")
+    List<PrestataireDto> findRankedByScoreAfter(@Param("minScore") double minScore,
+                                             @Param("afterScore") double afterScore,
+                                             @Param("afterId") Long afterId,
+                                             Limit limit);
 }
@@ -1,7 +1,51 @@
 package master.ipld.ligueylu.repository.reservation;
 
+import jakarta.persistence.QueryHint;
+import master.ipld.ligueylu.dto.ReservationDto;
+import master.ipld.ligueylu.dto.ReservationExportDto;
 import master.ipld.ligueylu.model.Reservation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    @Query("SELECT new master.ipld.ligueylu.dto.ReservationDto(r.id, r.libelle, r.typeService, r.description, r.status, r.creationDate) " +
+            "FROM Reservation r WHERE r.prestataire.id = :prestataireId ORDER BY r.id ASC")
+    List<ReservationDto> findDtoByPrestataireId(@Param("prestataireId") Long prestataireId);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.ReservationDto(r.id, r.libelle, r.typeService, r.description, r.status, r.creationDate) " +
+            "FROM Reservation r WHERE r.prestataire.id = :prestataireId AND r.id > :afterId ORDER BY r.id ASC")
+    List<ReservationDto> findDtoPageByPrestataireId(@Param("prestataireId") Long prestataireId,
+                                                    @Param("afterId") Long afterId,
+                                                    Limit limit);
+
+    // Creneaux encore a venir d'un prestataire, hors reservations annulees
+    @Query("SELECT r.id, r.debut, r.fin FROM Reservation r WHERE r.prestataire.id = :prestataireId " +
+            "AND r.fin > :after AND (r.status IS NULL OR r.status <> master.ipld.ligueylu.model.enums.Status.ANNULE)")
+    List<Object[]> findUpcomingSlots(@Param("prestataireId") Long prestataireId, @Param("after") Date after);
+
+    // Meme lecture pour tous les prestataires : reconstruction des bitmaps de disponibilite
+    @Query("SELECT r.prestataire.id, r.debut, r.fin FROM Reservation r WHERE r.prestataire IS NOT NULL " +
+            "AND r.fin > :after AND (r.status IS NULL OR r.status <> master.ipld.ligueylu.model.enums.Status.ANNULE)")
+    List<Object[]> findAllUpcomingSlots(@Param("after") Date after);
+
+    // Parmi les candidats, ceux qui ont une reservation chevauchant [debut, fin)
+    @Query("SELECT DISTINCT r.prestataire.id FROM Reservation r WHERE r.prestataire.id IN :ids " +
+            "AND r.debut < :fin AND r.fin > :debut " +
+            "AND (r.status IS NULL OR r.status <> master.ipld.ligueylu.model.enums.Status.ANNULE)")
+    List<Long> findBusyPrestataireIds(@Param("ids") Collection<Long> ids, @Param("debut") Date debut, @Param("fin") Date fin);
+
+    // Lecture en flux pour l'export : le curseur JDBC ramene les lignes par paquets de fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new master.ipld.ligueylu.dto.ReservationExportDto(r.id, r.libelle, r.typeService, r.description, r.status, r.creationDate, p.id, c.id) " +
+            "FROM Reservation r LEFT JOIN r.prestataire p LEFT JOIN r.client c ORDER BY r.id ASC")
+    Stream<ReservationExportDto> streamAllForExport();
 }
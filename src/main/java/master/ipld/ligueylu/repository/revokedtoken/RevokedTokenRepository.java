@@ -0,0 +1,32 @@
+package master.ipld.ligueylu.repository.revokedtoken;
+
+import master.ipld.ligueylu.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // INSERT seul (save fusionnerait avec une ligne existante) : un doublon leve une violation de cle
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_token (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, :revokedAt)",
+            nativeQuery = true)
+    int insert(@Param("jti") String jti, @Param("expiresAt") Date expiresAt, @Param("revokedAt") Date revokedAt);
+
+    @Query("SELECT t.jti, t.expiresAt FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<Object[]> findActive(@Param("now") Date now);
+
+    @Query("SELECT t.jti, t.expiresAt FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<Object[]> findRevokedSince(@Param("since") Date since, @Param("now") Date now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Date now);
+}
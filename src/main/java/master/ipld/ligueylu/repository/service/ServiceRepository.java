@@ -1,7 +1,19 @@
 package master.ipld.ligueylu.repository.service;
 
+import master.ipld.ligueylu.dto.ServiceDto;
 import master.ipld.ligueylu.model.Service;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface ServiceRepository extends JpaRepository<Service, Long> {
+    @Query("SELECT new master.ipld.ligueylu.dto.ServiceDto(s.id, s.typeService, s.duree, s.tarifStandard, s.description) " +
+            "FROM Service s WHERE s.prestataire.id = :prestataireId")
+    List<ServiceDto> findDtoByPrestataireId(@Param("prestataireId") Long prestataireId);
+
+    @Query("SELECT s.prestataire.id FROM Service s WHERE s.id = :id")
+    Optional<Long> findPrestataireIdById(@Param("id") Long id);
 }
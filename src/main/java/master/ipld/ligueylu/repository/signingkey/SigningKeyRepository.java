@@ -0,0 +1,20 @@
+package master.ipld.ligueylu.repository.signingkey;
+
+import master.ipld.ligueylu.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findAllByOrderByCreatedAtDesc();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SigningKey k WHERE k.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Date before);
+}
@@ -1,12 +1,26 @@
 package master.ipld.ligueylu.repository.specialite;
 
 import jakarta.validation.constraints.NotBlank;
+import master.ipld.ligueylu.dto.SpecialiteDto;
 import master.ipld.ligueylu.model.Specialite;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface SpecialiteRepository extends JpaRepository<Specialite, Long> {
 
     Optional<Specialite> findByLibelleIgnoreCase(@NotBlank(message = "le libelle est obligatoire") String libelle);
+
+    @Query("SELECT new master.ipld.ligueylu.dto.SpecialiteDto(s.id, s.libelle, s.description, s.anneeExperience) " +
+            "FROM Prestataire p JOIN p.specialites s WHERE p.id = :prestataireId")
+    List<SpecialiteDto> findDtoByPrestataireId(@Param("prestataireId") Long prestataireId);
+
+    @Query("SELECT DISTINCT s.libelle FROM Prestataire p JOIN p.specialites s")
+    List<String> findLinkedLibelles();
+
+    @Query("SELECT s.libelle, s.id FROM Specialite s")
+    List<Object[]> findAllLibellesAndIds();
 }
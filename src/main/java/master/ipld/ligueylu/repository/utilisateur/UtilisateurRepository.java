@@ -1,12 +1,38 @@
 package master.ipld.ligueylu.repository.utilisateur;
 
+import master.ipld.ligueylu.dto.UtilisateurCredentials;
 import master.ipld.ligueylu.model.abstracts.Utilisateur;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long> {
     Optional<Utilisateur> findByEmail(String email);
+
+    // Requete native sur la seule table de base : evite les jointures de l'heritage JOINED
+    @Query(value = "SELECT id, email, password, role, actif, token_version AS tokenVersion FROM utilisateur WHERE email = :email",
+            nativeQuery = true)
+    Optional<UtilisateurCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    @Query("SELECT u.email FROM Utilisateur u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query(value = "SELECT email FROM utilisateur", nativeQuery = true)
+    List<String> findAllEmails();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Utilisateur u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
+    @Query("SELECT u.id, u.tokenVersion FROM Utilisateur u WHERE u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
 }
@@ -0,0 +1,12 @@
+package master.ipld.ligueylu.request;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@Data
+@RequiredArgsConstructor
+public class AddEvaluationRequest {
+    private Long serviceId;
+    private double note;
+    private String commentaire;
+}
@@ -10,4 +10,6 @@ public class AdresseUpdateRequest {
     private String rue;
     private String codePostal;
     private String pays;
+    private Double latitude;
+    private Double longitude;
 }
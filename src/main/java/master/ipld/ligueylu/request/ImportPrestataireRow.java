@@ -0,0 +1,28 @@
+package master.ipld.ligueylu.request;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportPrestataireRow {
+    private String email;
+    private String nomComplet;
+    private String telephone;
+    // en clair, ou deja hache en BCrypt ($2a$/$2b$/$2y$)
+    private String password;
+    private List<String> specialites = new ArrayList<>();
+    private List<ImportServiceRow> services = new ArrayList<>();
+
+    // NDJSON : une liste a null vaut une liste vide
+    public void setSpecialites(List<String> specialites) {
+        this.specialites = specialites == null ? new ArrayList<>() : specialites;
+    }
+
+    public void setServices(List<ImportServiceRow> services) {
+        this.services = services == null ? new ArrayList<>() : services;
+    }
+}
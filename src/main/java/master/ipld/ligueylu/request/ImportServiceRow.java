@@ -0,0 +1,14 @@
+package master.ipld.ligueylu.request;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import master.ipld.ligueylu.model.enums.TypeService;
+
+@Data
+@NoArgsConstructor
+public class ImportServiceRow {
+    private TypeService typeService;
+    private int duree;
+    private double tarifStandard;
+    private String description;
+}
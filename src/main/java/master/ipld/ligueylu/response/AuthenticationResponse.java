@@ -12,4 +12,5 @@ import master.ipld.ligueylu.dto.UserDto;
 @NoArgsConstructor
 public class AuthenticationResponse {
     private String token;
+    private String refreshToken;
 }
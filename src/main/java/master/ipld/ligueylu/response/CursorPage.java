@@ -0,0 +1,17 @@
+package master.ipld.ligueylu.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page obtenue par pagination par curseur : {@code next} est opaque et vaut
+ * {@code null} quand il n'y a plus de resultats.
+ */
+@AllArgsConstructor
+@Data
+public class CursorPage<T> {
+    private List<T> items;
+    private String next;
+}
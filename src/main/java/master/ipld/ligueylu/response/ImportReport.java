@@ -0,0 +1,21 @@
+package master.ipld.ligueylu.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    public record Erreur(long ligne, String email, String message) {}
+
+    private long lignesLues;
+    private long lignesImportees;
+    private long lignesRejetees;
+    private long dureeMs;
+    private double lignesParSeconde;
+    // tronquee a max-errors entrees ; lignesRejetees donne le total
+    private List<Erreur> erreurs = new ArrayList<>();
+}
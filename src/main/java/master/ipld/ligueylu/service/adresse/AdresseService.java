@@ -1,12 +1,18 @@
 package master.ipld.ligueylu.service.adresse;
 
 import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.dto.AdresseDto;
 import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
 import master.ipld.ligueylu.exception.ResourceNotFoundException;
 import master.ipld.ligueylu.model.Adresse;
 import master.ipld.ligueylu.repository.adresse.AdresseRepository;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
 import master.ipld.ligueylu.request.AddAdresseRequest;
 import master.ipld.ligueylu.request.AdresseUpdateRequest;
+import master.ipld.ligueylu.response.CursorPage;
+import master.ipld.ligueylu.service.prestataire.PrestataireGeoIndex;
+import master.ipld.ligueylu.util.Cursors;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,6 +20,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdresseService implements  IAdresseService{
     private final AdresseRepository adresseRepository;
+    private final PrestataireRepository prestataireRepository;
+    private final PrestataireGeoIndex geoIndex;
     @Override
     public Adresse addAdresse(AddAdresseRequest request) {
         boolean existed = adresseRepository.findByNumeroAndRueAndVilleAndCodePostalAndPays(
@@ -29,13 +37,16 @@ public class AdresseService implements  IAdresseService{
         return adresseRepository.save(createAdresse(request));
     }
     public Adresse createAdresse(AddAdresseRequest request) {
-        return new Adresse(
+        Adresse adresse = new Adresse(
                 request.getNumero(),
                 request.getCodePostal(),
                 request.getVille(),
                 request.getPays(),
                 request.getRue()
         );
+        adresse.setLatitude(request.getLatitude());
+        adresse.setLongitude(request.getLongitude());
+        return adresse;
     }
 
     @Override
@@ -44,27 +55,45 @@ public class AdresseService implements  IAdresseService{
                 .orElseThrow(()-> new ResourceNotFoundException("Adresse Not Found !"));
     }
 
+    @Override
+    public AdresseDto getAdresseDtoById(Long adresseId) {
+        return adresseRepository.findDtoById(adresseId)
+                .orElseThrow(()-> new ResourceNotFoundException("Adresse Not Found !"));
+    }
+
     @Override
     public List<Adresse> getAllAdresses() {
         return adresseRepository.findAll();
     }
 
     @Override
-    public List<Adresse> getAdressesByVille(String ville) {
-        return adresseRepository.findByVille(ville);
+    public CursorPage<AdresseDto> getAdresses(String cursor, Integer limit) {
+        int size = Cursors.clampLimit(limit);
+        List<AdresseDto> rows = adresseRepository.findDtoPage(Cursors.decodeId(cursor), Limit.of(size + 1));
+        return Cursors.page(rows, size, a -> Cursors.encodeId(a.getId()));
     }
 
     @Override
-    public List<Adresse> getAdressesByVilleAndRue(String ville, String rue) {
-        return adresseRepository.findByVilleAndRue(ville, rue);
+    public List<AdresseDto> getAdressesByVille(String ville) {
+        return adresseRepository.findDtoByVille(ville);
+    }
+
+    @Override
+    public List<AdresseDto> getAdressesByVilleAndRue(String ville, String rue) {
+        return adresseRepository.findDtoByVilleAndRue(ville, rue);
     }
 
     @Override
     public Adresse updateAdresse(AdresseUpdateRequest request, Long id) {
-        return adresseRepository.findById(id)
+        Adresse adresse = adresseRepository.findById(id)
                 .map(existingAdresse -> updateExistingAdresse(existingAdresse,request))
                 .map(adresseRepository :: save)
                 .orElseThrow(() -> new ResourceNotFoundException("Adresse Not Found"));
+        // Les prestataires actifs a cette adresse changent de position
+        for (Object[] row : prestataireRepository.findActiveCoordinatesByAdresseId(id)) {
+            geoIndex.put((Long) row[0], (Double) row[1], (Double) row[2]);
+        }
+        return adresse;
     }
     public Adresse updateExistingAdresse(Adresse existingAdresse, AdresseUpdateRequest request) {
         existingAdresse.setNumero(request.getNumero());
@@ -72,6 +101,8 @@ public class AdresseService implements  IAdresseService{
         existingAdresse.setVille(request.getVille());
         existingAdresse.setPays(request.getPays());
         existingAdresse.setRue(request.getRue());
+        existingAdresse.setLatitude(request.getLatitude());
+        existingAdresse.setLongitude(request.getLongitude());
         return existingAdresse;
     }
 
@@ -1,8 +1,10 @@
 package master.ipld.ligueylu.service.adresse;
 
+import master.ipld.ligueylu.dto.AdresseDto;
 import master.ipld.ligueylu.model.Adresse;
 import master.ipld.ligueylu.request.AddAdresseRequest;
 import master.ipld.ligueylu.request.AdresseUpdateRequest;
+import master.ipld.ligueylu.response.CursorPage;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
@@ -10,9 +12,11 @@ import java.util.List;
 public interface IAdresseService {
     Adresse addAdresse(AddAdresseRequest adresse);
     Adresse getAdresseById(Long adresseId);
+    AdresseDto getAdresseDtoById(Long adresseId);
     List<Adresse> getAllAdresses();
-    List<Adresse> getAdressesByVille(String ville);
-    List<Adresse> getAdressesByVilleAndRue(String ville, String rue);
+    CursorPage<AdresseDto> getAdresses(String cursor, Integer limit);
+    List<AdresseDto> getAdressesByVille(String ville);
+    List<AdresseDto> getAdressesByVilleAndRue(String ville, String rue);
     Adresse updateAdresse(AdresseUpdateRequest adresse,Long adresseId);
     void deleteAdresse(Long id);
 }
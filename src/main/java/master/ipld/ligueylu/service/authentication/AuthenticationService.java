@@ -1,6 +1,9 @@
 package master.ipld.ligueylu.service.authentication;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.dto.UtilisateurCredentials;
+import master.ipld.ligueylu.exception.InvalidTokenException;
 import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
 import master.ipld.ligueylu.model.Administrateur;
 import master.ipld.ligueylu.model.Client;
@@ -9,8 +12,11 @@ import master.ipld.ligueylu.model.abstracts.Utilisateur;
 import master.ipld.ligueylu.model.enums.Role;
 import master.ipld.ligueylu.repository.utilisateur.UtilisateurRepository;
 import master.ipld.ligueylu.request.AuthenticationRequest;
+import master.ipld.ligueylu.request.RefreshTokenRequest;
 import master.ipld.ligueylu.request.RegisterRequest;
 import master.ipld.ligueylu.response.AuthenticationResponse;
+import master.ipld.ligueylu.service.prestataire.PrestataireSuggestionIndex;
+import master.ipld.ligueylu.service.prestataire.ScoreLeaderboard;
 import master.ipld.ligueylu.service.security.JwtService;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -30,10 +36,19 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final EmailExistenceIndex emailExistenceIndex;
+    private final PrestataireSuggestionIndex suggestionIndex;
+    private final ScoreLeaderboard scoreLeaderboard;
 
 
     public AuthenticationResponse register(RegisterRequest request)
     {
+        // Verification avant tout hachage : un doublon ne coute ni BCrypt ni, le plus souvent, de requete
+        if (emailExistenceIndex.mightExist(request.getEmail())
+                && utilisateurRepository.findCredentialsByEmail(request.getEmail()).isPresent()) {
+            throw new ResourceAlreadyExistException("Un utilisateur avec cet email existe déjà.");
+        }
+
         Role role = request.getRole() != null ? request.getRole() : Role.CLIENT;
         Utilisateur user = switch (role) {
             case ADMIN -> Administrateur.builder()
@@ -63,16 +78,13 @@ public class AuthenticationService {
                     .build();
         };
 
-        var existingEmail = utilisateurRepository.findByEmail(request.getEmail());
-        if(existingEmail.isPresent()){
-            throw new ResourceAlreadyExistException("Un utilisateur avec cet email existe déjà.");
-        }
-
         utilisateurRepository.save(user);
-        var jwtToken = jwtService.getToken(user.getEmail());
-        return AuthenticationResponse.builder()
-                .token(jwtToken)
-                .build();
+        emailExistenceIndex.add(user.getEmail());
+        if (user instanceof Prestataire) {
+            suggestionIndex.putPrestataire(user.getId(), user.getNomComplet());
+            scoreLeaderboard.update(user.getId(), ((Prestataire) user).getScore());
+        }
+        return issueTokens(user);
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request)
@@ -83,11 +95,51 @@ public class AuthenticationService {
                         request.getPassword()
                 )
         );
-        var user  = utilisateurRepository.findByEmail(request.getEmail())
+        var user  = utilisateurRepository.findCredentialsByEmail(request.getEmail())
                 .orElseThrow();
-        var jwtToken = jwtService.getToken(user.getEmail());
+        return issueTokens(user);
+    }
+
+    /**
+     * Echange un refresh token valide contre une nouvelle paire de jetons.
+     * L'ancien refresh token est revoque (rotation) : il ne peut servir qu'une fois. La
+     * revocation est atomique : de deux echanges concurrents du meme jeton, seul celui qui la
+     * realise recoit une nouvelle paire.
+     */
+    public AuthenticationResponse refresh(RefreshTokenRequest request)
+    {
+        Claims claims = jwtService.validateRefreshToken(request.getRefreshToken());
+        if (claims == null) {
+            throw new InvalidTokenException("Refresh token invalide ou expiré.");
+        }
+        // meme email mais autre identifiant : compte supprime puis recree
+        Long userId = jwtService.extractUserId(claims);
+        var user = utilisateurRepository.findCredentialsByEmail(claims.getSubject())
+                .filter(credentials -> credentials.getId().equals(userId))
+                .orElseThrow(() -> new InvalidTokenException("Refresh token invalide ou expiré."));
+        if (!jwtService.revoke(claims)) {
+            throw new InvalidTokenException("Refresh token invalide ou expiré.");
+        }
+        return issueTokens(user);
+    }
+
+    public void logout(RefreshTokenRequest request, String accessToken)
+    {
+        Claims refreshClaims = jwtService.validateRefreshToken(request.getRefreshToken());
+        if (refreshClaims != null) {
+            jwtService.revoke(refreshClaims);
+        }
+        Claims accessClaims = accessToken != null ? jwtService.validateToken(accessToken) : null;
+        if (accessClaims != null) {
+            jwtService.revoke(accessClaims);
+        }
+    }
+
+    private AuthenticationResponse issueTokens(UtilisateurCredentials user)
+    {
         return AuthenticationResponse.builder()
-                .token(jwtToken)
+                .token(jwtService.getToken(user))
+                .refreshToken(jwtService.getRefreshToken(user))
                 .build();
     }
 }
@@ -1,22 +1,68 @@
 package master.ipld.ligueylu.service.authentication;
 
-import lombok.RequiredArgsConstructor;
-import master.ipld.ligueylu.model.abstracts.Utilisateur;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import master.ipld.ligueylu.dto.UtilisateurCredentials;
 import master.ipld.ligueylu.repository.utilisateur.UtilisateurRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UtilisateurRepository utilisateurRepository;
+    private final Cache<String, UserDetails> cache;
+
+    public CustomUserDetailsService(UtilisateurRepository utilisateurRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${userdetails.cache.maximum-size:500000}") long maximumSize,
+                                    @Value("${userdetails.cache.ttl:PT15M}") Duration ttl) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userdetails");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Utilisateur user = utilisateurRepository.findByEmail(email)
+        UserDetails userDetails = cache.get(email, this::loadFromDatabase);
+        // Copie : le ProviderManager efface le mot de passe du principal apres authentification
+        return User.withUserDetails(userDetails).build();
+    }
+
+    /**
+     * Appele par le DaoAuthenticationProvider apres un login reussi quand le hash
+     * a ete calcule avec un cout BCrypt inferieur a celui configure.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        utilisateurRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        evict(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    /**
+     * A appeler des que l'email, le mot de passe, le role ou le flag actif d'un utilisateur change.
+     */
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    private UserDetails loadFromDatabase(String email) {
+        UtilisateurCredentials user = utilisateurRepository.findCredentialsByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé."));
         return User.withUsername(email)
                 .password(user.getPassword())
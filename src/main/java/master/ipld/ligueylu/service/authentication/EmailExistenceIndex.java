@@ -0,0 +1,53 @@
+package master.ipld.ligueylu.service.authentication;
+
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.utilisateur.UtilisateurRepository;
+import master.ipld.ligueylu.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Index d'existence des emails base sur un filtre de Bloom. Un "non" est definitif
+ * et permet d'eviter la requete en base ; un "peut-etre" doit etre confirme par la base.
+ * Tant que l'index n'est pas charge, toutes les reponses sont "peut-etre".
+ */
+@Slf4j
+@Component
+public class EmailExistenceIndex {
+    private final UtilisateurRepository utilisateurRepository;
+    private final BloomFilter filter;
+    private volatile boolean ready;
+
+    public EmailExistenceIndex(UtilisateurRepository utilisateurRepository,
+                               @Value("${email.index.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${email.index.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        var emails = utilisateurRepository.findAllEmails();
+        emails.forEach(this::add);
+        ready = true;
+        log.info("Index d'existence des emails charge ({} emails)", emails.size());
+    }
+
+    public boolean mightExist(String email) {
+        return email == null || !ready || filter.mightContain(normalize(email));
+    }
+
+    public void add(String email) {
+        if (email != null) {
+            filter.put(normalize(email));
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,121 @@
+package master.ipld.ligueylu.service.dashboard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import master.ipld.ligueylu.model.NotificationOutbox;
+import master.ipld.ligueylu.repository.notification.NotificationOutboxRepository;
+import master.ipld.ligueylu.service.notification.NotificationMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Alimente les tableaux de bord a partir de l'outbox des notifications.
+ * <p>
+ * Chaque instance lit la queue de l'outbox ({@code creeLe} recent) et pousse les evenements
+ * aux prestataires connectes chez elle : un prestataire recoit ses evenements quelle que soit
+ * l'instance qui a ecrit ou livre la notification. Une seule requete par instance et par
+ * intervalle remplace le polling de tous les clients. Chaque poll repart de la fin du precedent
+ * moins {@code overlap}, pour rattraper les transactions validees en retard, puis avance par
+ * pages sur la cle {@code (creeLe, id)} jusqu'a une page incomplete : un chevauchement plus
+ * dense qu'une page ne bloque donc jamais l'avancee. Les identifiants deja pousses sont ecartes.
+ */
+@Component
+public class DashboardFeed {
+    private static final int REPLAY_LIMIT = 100;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final DashboardStreams streams;
+    private final long overlapMillis;
+    private final int batchSize;
+    private final Cache<Long, Boolean> pushed;
+    private volatile long watermark = System.currentTimeMillis();
+
+    public DashboardFeed(NotificationOutboxRepository outboxRepository,
+                         DashboardStreams streams,
+                         @Value("${dashboard.sse.overlap:PT10S}") Duration overlap,
+                         @Value("${dashboard.sse.poll-batch:5000}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.streams = streams;
+        this.overlapMillis = overlap.toMillis();
+        this.batchSize = batchSize;
+        this.pushed = Caffeine.newBuilder()
+                .expireAfterWrite(overlap.multipliedBy(3))
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.sse.poll-interval:PT1S}")
+    public void poll() {
+        long pollStart = System.currentTimeMillis();
+        if (streams.connectionCount() == 0) {
+            watermark = pollStart;
+            return;
+        }
+        Date since = new Date(watermark - overlapMillis);
+        long afterId = Long.MIN_VALUE;
+        List<NotificationOutbox> rows;
+        do {
+            rows = outboxRepository.findCreatedAfter(since, afterId, Limit.of(batchSize));
+            for (NotificationOutbox row : rows) {
+                push(row);
+            }
+            if (!rows.isEmpty()) {
+                NotificationOutbox last = rows.get(rows.size() - 1);
+                since = last.getCreeLe();
+                afterId = last.getId();
+            }
+        } while (rows.size() == batchSize);
+        watermark = pollStart;
+    }
+
+    /**
+     * Un evenement n'est marque pousse qu'une fois mis en file pour une connexion : s'il est lu
+     * alors que son destinataire se reconnecte (apres la requete de rattrapage, avant
+     * l'enregistrement de la connexion), le poll suivant le relit dans le chevauchement et le pousse.
+     */
+    private void push(NotificationOutbox row) {
+        if (pushed.getIfPresent(row.getId()) == null
+                && streams.isConnected(row.getDestinataireId())
+                && streams.publish(toMessage(row))) {
+            pushed.put(row.getId(), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Evenements du prestataire posterieurs a {@code lastEventId}, ou {@code null} si cet
+     * evenement n'est plus dans l'outbox (purge) : le client doit alors se resynchroniser.
+     */
+    public List<NotificationMessage> replay(Long prestataireId, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        Optional<NotificationOutbox> last;
+        try {
+            last = outboxRepository.findById(Long.parseLong(lastEventId.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (last.isEmpty()) {
+            return null;
+        }
+        List<NotificationMessage> messages = new ArrayList<>();
+        for (NotificationOutbox row : outboxRepository.findForReplay(prestataireId, last.get().getCreeLe(), Limit.of(REPLAY_LIMIT))) {
+            if (!row.getId().equals(last.get().getId())) {
+                messages.add(toMessage(row));
+            }
+        }
+        return messages;
+    }
+
+    private static NotificationMessage toMessage(NotificationOutbox row) {
+        return new NotificationMessage(row.getId(), row.getCleDeduplication(), row.getType(), row.getAgregat(),
+                row.getAgregatId(), row.getDestinataireId(), row.getContenu(), row.getCreeLe());
+    }
+}
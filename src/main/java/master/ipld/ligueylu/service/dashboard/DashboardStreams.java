@@ -0,0 +1,288 @@
+package master.ipld.ligueylu.service.dashboard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.exception.ServiceOverloadedException;
+import master.ipld.ligueylu.service.notification.NotificationMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connexions SSE des tableaux de bord prestataires.
+ * <p>
+ * Une connexion inactive ne tient aucun thread : la requete est en mode asynchrone et
+ * l'emetteur n'est qu'une entree du registre. Chaque connexion a sa file bornee ; un petit
+ * pool partage la vide, une seule tache a la fois par connexion pour garder l'ordre. Un
+ * client trop lent pour suivre sature sa file : la connexion est fermee et le client, en se
+ * reconnectant avec {@code Last-Event-ID}, rattrape les evenements manques. Les battements
+ * de coeur ne sont jamais mis en file derriere un arriere.
+ * <p>
+ * L'ecriture servlet est bloquante : un client qui ne lit plus (fenetre TCP pleine) immobilise
+ * son thread d'envoi. Un envoi qui depasse {@code dashboard.sse.write-timeout} ferme la
+ * connexion et le thread bloque est remplace dans le pool jusqu'a ce que l'ecriture rende la
+ * main (delai d'ecriture du serveur) : quelques clients figes ne peuvent pas retenir les
+ * evenements des autres.
+ */
+@Slf4j
+@Component
+public class DashboardStreams {
+
+    // etats de Connection.sendingSince hors envoi en cours (sinon : System.nanoTime du debut)
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MIN_VALUE + 1;
+
+    private static final class Connection {
+        final Long prestataireId;
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicLong sendingSince = new AtomicLong(IDLE);
+
+        Connection(Long prestataireId, SseEmitter emitter) {
+            this.prestataireId = prestataireId;
+            this.emitter = emitter;
+        }
+    }
+
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ThreadPoolExecutor sender;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final int bufferSize;
+    private final int maxConnections;
+    private final Counter sent;
+    private final Counter overflows;
+    private final Counter writeTimeouts;
+
+    public DashboardStreams(@Value("${dashboard.sse.timeout:PT30M}") Duration timeout,
+                            @Value("${dashboard.sse.buffer-size:64}") int bufferSize,
+                            @Value("${dashboard.sse.max-connections:50000}") int maxConnections,
+                            @Value("${dashboard.sse.send-threads:4}") int sendThreads,
+                            @Value("${dashboard.sse.write-timeout:PT10S}") Duration writeTimeout,
+                            MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.bufferSize = bufferSize;
+        this.maxConnections = maxConnections;
+        AtomicInteger threadCount = new AtomicInteger();
+        // au plus une tache par connexion en file : la file du pool est bornee par le nombre de connexions
+        this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sse-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.sent = Counter.builder("dashboard.sse.sent")
+                .description("Evenements envoyes aux tableaux de bord")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("dashboard.sse.overflows")
+                .description("Connexions fermees car leur file etait pleine")
+                .register(meterRegistry);
+        this.writeTimeouts = Counter.builder("dashboard.sse.write.timeouts")
+                .description("Connexions fermees car un envoi depassait le delai d'ecriture")
+                .register(meterRegistry);
+        Gauge.builder("dashboard.sse.connections", connectionCount, AtomicInteger::get)
+                .description("Connexions SSE ouvertes")
+                .register(meterRegistry);
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    public boolean isConnected(Long prestataireId) {
+        return connections.containsKey(prestataireId);
+    }
+
+    /** Ouvre une connexion ; {@code backlog} (rattrapage) est envoye avant tout nouvel evenement. */
+    public SseEmitter subscribe(Long prestataireId, Iterable<NotificationMessage> backlog, boolean resync) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            throw new ServiceOverloadedException("Trop de connexions ouvertes, veuillez réessayer dans quelques instants.");
+        }
+        Connection connection = new Connection(prestataireId, newEmitter());
+        connection.emitter.onCompletion(() -> close(connection));
+        connection.emitter.onTimeout(() -> close(connection));
+        connection.emitter.onError(error -> close(connection));
+        connections.computeIfAbsent(prestataireId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+
+        enqueue(connection, SseEmitter.event().name("connecte").data("{}", MediaType.APPLICATION_JSON), false);
+        if (resync) {
+            // evenements manques purges : le client recharge son etat par l'API REST
+            enqueue(connection, SseEmitter.event().name("resynchroniser").data("{}", MediaType.APPLICATION_JSON), false);
+        }
+        for (NotificationMessage message : backlog) {
+            enqueue(connection, toEvent(message), false);
+        }
+        return connection.emitter;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /** Met l'evenement en file pour chaque connexion du destinataire ; {@code false} si aucune ne l'a recu. */
+    public boolean publish(NotificationMessage message) {
+        Set<Connection> targets = message.destinataireId() == null ? null : connections.get(message.destinataireId());
+        if (targets == null) {
+            return false;
+        }
+        boolean enqueued = false;
+        for (Connection connection : targets) {
+            enqueued |= enqueue(connection, toEvent(message), false);
+        }
+        return enqueued;
+    }
+
+    /** Garde les connexions ouvertes a travers les proxys et detecte les clients partis. */
+    @Scheduled(fixedDelayString = "${dashboard.sse.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        for (Set<Connection> targets : connections.values()) {
+            for (Connection connection : targets) {
+                enqueue(connection, SseEmitter.event().comment("ping"), true);
+            }
+        }
+    }
+
+    /** Ferme les connexions dont l'envoi en cours depasse le delai et remplace leur thread. */
+    @Scheduled(fixedDelayString = "${dashboard.sse.write-check-interval:PT1S}")
+    public void abortStalledWrites() {
+        long now = System.nanoTime();
+        for (Set<Connection> targets : connections.values()) {
+            for (Connection connection : targets) {
+                long since = connection.sendingSince.get();
+                if (since != IDLE && since != STALLED && now - since > writeTimeoutNanos
+                        && connection.sendingSince.compareAndSet(since, STALLED)) {
+                    writeTimeouts.increment();
+                    log.debug("Envoi SSE bloque pour le prestataire {}, connexion fermee", connection.prestataireId);
+                    close(connection);
+                    resizeSender(1);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        connections.values().forEach(targets -> targets.forEach(connection -> connection.emitter.complete()));
+    }
+
+    private static SseEmitter.SseEventBuilder toEvent(NotificationMessage message) {
+        return SseEmitter.event()
+                .id(String.valueOf(message.id()))
+                .name(message.type())
+                .data(message.contenu(), MediaType.APPLICATION_JSON);
+    }
+
+    private boolean enqueue(Connection connection, SseEmitter.SseEventBuilder event, boolean droppable) {
+        if (connection.closed.get()) {
+            return false;
+        }
+        if (droppable && connection.size.get() > 0) {
+            return false;
+        }
+        if (connection.size.incrementAndGet() > bufferSize) {
+            connection.size.decrementAndGet();
+            overflows.increment();
+            log.debug("File SSE pleine pour le prestataire {}, connexion fermee", connection.prestataireId);
+            connection.emitter.complete();
+            close(connection);
+            return false;
+        }
+        connection.queue.add(event);
+        schedule(connection);
+        return true;
+    }
+
+    private void schedule(Connection connection) {
+        if (connection.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(connection));
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!connection.closed.get() && (event = connection.queue.poll()) != null) {
+                connection.size.decrementAndGet();
+                long started = System.nanoTime();
+                connection.sendingSince.set(started);
+                connection.emitter.send(event);
+                if (!connection.sendingSince.compareAndSet(started, IDLE)) {
+                    // declare bloque entre-temps : la connexion est deja fermee
+                    break;
+                }
+                sent.increment();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client parti ou emetteur deja termine
+            close(connection);
+        } finally {
+            if (connection.sendingSince.getAndSet(IDLE) == STALLED) {
+                // ce thread avait ete remplace : le pool reprend sa taille, l'emetteur est termine
+                resizeSender(-1);
+                completeQuietly(connection);
+            }
+            connection.draining.set(false);
+            if (!connection.closed.get() && !connection.queue.isEmpty()) {
+                schedule(connection);
+            }
+        }
+    }
+
+    // augmente le maximum avant le minimum, et l'inverse pour reduire : minimum <= maximum
+    private synchronized void resizeSender(int delta) {
+        if (delta > 0) {
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+        } else {
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+        }
+    }
+
+    private static void completeQuietly(Connection connection) {
+        try {
+            connection.emitter.complete();
+        } catch (RuntimeException e) {
+            log.debug("Emetteur SSE deja termine pour le prestataire {}", connection.prestataireId);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connectionCount.decrementAndGet();
+        connection.queue.clear();
+        connections.computeIfPresent(connection.prestataireId, (id, targets) -> {
+            targets.remove(connection);
+            return targets.isEmpty() ? null : targets;
+        });
+    }
+}
@@ -1,4 +1,103 @@
 package master.ipld.ligueylu.service.evaluation;
 
-public class EvaluationService {
+import master.ipld.ligueylu.dto.EvaluationStatsDto;
+import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
+import master.ipld.ligueylu.exception.ResourceNotFoundException;
+import master.ipld.ligueylu.model.Evaluation;
+import master.ipld.ligueylu.model.Service;
+import master.ipld.ligueylu.repository.evaluation.EvaluationRepository;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.repository.service.ServiceRepository;
+import master.ipld.ligueylu.request.AddEvaluationRequest;
+import master.ipld.ligueylu.service.event.DomainEvent;
+import master.ipld.ligueylu.service.event.DomainEventBus;
+import master.ipld.ligueylu.service.lock.PrestataireLocks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ingestion des evaluations. Chaque prestataire porte ses agregats (nombre, somme) et son
+ * score, une moyenne bayesienne {@code (C * m + somme) / (C + nombre)} qui tire les
+ * prestataires peu evalues vers la moyenne a priori {@code m}. Une nouvelle evaluation met a
+ * jour ces trois colonnes en un seul UPDATE relatif, en O(1) : aucun AVG sur l'historique,
+ * et le verrou de ligne pris par l'UPDATE serialise les evaluations concurrentes.
+ * <p>
+ * Le nouveau score n'est publie qu'apres le commit. Il est relu sous le verrou du
+ * prestataire, pour que les publications d'un meme prestataire se suivent dans l'ordre des
+ * commits : la derniere publiee porte toujours le dernier score valide.
+ */
+@org.springframework.stereotype.Service
+public class EvaluationService implements IEvaluationService {
+    public static final double MAX_NOTE = 5.0;
+
+    private final EvaluationRepository evaluationRepository;
+    private final ServiceRepository serviceRepository;
+    private final PrestataireRepository prestataireRepository;
+    private final DomainEventBus eventBus;
+    private final PrestataireLocks prestataireLocks;
+    private final double priorMean;
+    private final double priorWeight;
+
+    public EvaluationService(EvaluationRepository evaluationRepository,
+                             ServiceRepository serviceRepository,
+                             PrestataireRepository prestataireRepository,
+                             DomainEventBus eventBus,
+                             PrestataireLocks prestataireLocks,
+                             @Value("${evaluation.prior.mean:3.0}") double priorMean,
+                             @Value("${evaluation.prior.weight:5}") double priorWeight) {
+        this.evaluationRepository = evaluationRepository;
+        this.serviceRepository = serviceRepository;
+        this.prestataireRepository = prestataireRepository;
+        this.eventBus = eventBus;
+        this.prestataireLocks = prestataireLocks;
+        this.priorMean = priorMean;
+        this.priorWeight = priorWeight;
+    }
+
+    @Override
+    @Transactional
+    public Evaluation addEvaluation(AddEvaluationRequest request) {
+        if (request.getNote() < 0 || request.getNote() > MAX_NOTE) {
+            throw new IllegalArgumentException("La note doit etre comprise entre 0 et " + MAX_NOTE);
+        }
+        Service service = serviceRepository.findById(request.getServiceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Service introuvable avec l'id " + request.getServiceId()));
+        Long prestataireId = serviceRepository.findPrestataireIdById(service.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Ce service n'est rattache a aucun prestataire"));
+        if (evaluationRepository.existsByServiceId(service.getId())) {
+            throw new ResourceAlreadyExistException("Ce service a deja ete evalue");
+        }
+
+        Evaluation evaluation;
+        try {
+            evaluation = evaluationRepository.saveAndFlush(
+                    new Evaluation(null, request.getNote(), request.getCommentaire(), service));
+        } catch (DataIntegrityViolationException e) {
+            // evaluation concurrente du meme service, validee entre la verification et l'insertion
+            throw new ResourceAlreadyExistException("Ce service a deja ete evalue");
+        }
+        prestataireRepository.applyEvaluation(prestataireId, request.getNote(), priorMean, priorWeight);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publishScore(prestataireId);
+            }
+        });
+        return evaluation;
+    }
+
+    private void publishScore(Long prestataireId) {
+        prestataireLocks.withLock(prestataireId, () -> prestataireRepository.findScoreById(prestataireId)
+                .ifPresent(score -> eventBus.publish(new DomainEvent.ScoreChanged(prestataireId, score))));
+    }
+
+    @Override
+    public EvaluationStatsDto getStats(Long prestataireId) {
+        return prestataireRepository.findEvaluationStatsById(prestataireId)
+                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable avec l'id " + prestataireId));
+    }
 }
@@ -1,4 +1,10 @@
 package master.ipld.ligueylu.service.evaluation;
 
+import master.ipld.ligueylu.dto.EvaluationStatsDto;
+import master.ipld.ligueylu.model.Evaluation;
+import master.ipld.ligueylu.request.AddEvaluationRequest;
+
 public interface IEvaluationService {
+    Evaluation addEvaluation(AddEvaluationRequest request);
+    EvaluationStatsDto getStats(Long prestataireId);
 }
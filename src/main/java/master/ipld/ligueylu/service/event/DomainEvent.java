@@ -0,0 +1,24 @@
+package master.ipld.ligueylu.service.event;
+
+import java.util.Date;
+
+/**
+ * Evenements du domaine diffuses par {@link DomainEventBus}. Immuables : un meme evenement
+ * est lu par tous les consommateurs.
+ */
+public sealed interface DomainEvent {
+
+    record ReservationCreated(Long reservationId, Long prestataireId, Date debut, Date fin) implements DomainEvent {}
+
+    record ReservationCancelled(Long reservationId, Long prestataireId) implements DomainEvent {}
+
+    /** {@code nouveauLien} : la specialite n'etait pas deja rattachee au prestataire. */
+    record SpecialiteAdded(Long prestataireId, String libelle, boolean nouveauLien) implements DomainEvent {}
+
+    /** {@code lienRetire} : la specialite etait effectivement rattachee au prestataire. */
+    record SpecialiteRemoved(Long prestataireId, String libelle, boolean lienRetire) implements DomainEvent {}
+
+    record ScoreChanged(Long prestataireId, double score) implements DomainEvent {}
+
+    record PrestataireDeleted(Long prestataireId) implements DomainEvent {}
+}
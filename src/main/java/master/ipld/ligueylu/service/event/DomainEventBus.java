@@ -0,0 +1,201 @@
+package master.ipld.ligueylu.service.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus d'evenements en processus sur un anneau prealloue, a la maniere du Disruptor.
+ * <p>
+ * Publier coute une reservation de sequence ({@code incrementAndGet}) et une ecriture dans
+ * l'anneau : les effets de bord (index, compteurs, classement) sortent du thread de la requete.
+ * Chaque {@link DomainEventHandler} a son thread et sa sequence ; il lit tout ce qui est publie
+ * depuis son dernier passage, en un lot. Les emplacements publies portent le numero de tour de
+ * leur sequence, ce qui permet a plusieurs threads de requete de publier sans verrou.
+ * <p>
+ * Un producteur ne recouvre jamais un emplacement que le consommateur le plus lent n'a pas lu :
+ * anneau plein, il attend (compte dans {@code domain.events.ring.full}). Aucun evenement n'est
+ * abandonne : les index tenus par les handlers n'ont pas d'autre source de mise a jour. Un lot
+ * en echec est signale au handler ({@link DomainEventHandler#recover}), qui reconstruit son
+ * etat depuis la base. L'ecart entre le dernier evenement publie et chaque consommateur est
+ * expose par {@code domain.events.lag}.
+ */
+@Slf4j
+@Component
+public class DomainEventBus {
+    // attente d'un consommateur inactif : quelques tours actifs, puis des pauses d'au plus 1 ms
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final DomainEvent[] entries;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray publishedRound;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final int maxBatch;
+    private final List<Consumer> consumers = new ArrayList<>();
+    private final Counter published;
+    private final Counter ringFull;
+    private volatile boolean running = true;
+
+    private final class Consumer implements Runnable {
+        final DomainEventHandler handler;
+        final String name;
+        final AtomicLong sequence = new AtomicLong(-1);
+        final DistributionSummary batchSize;
+        final Counter errors;
+        Thread thread;
+
+        Consumer(DomainEventHandler handler, MeterRegistry meterRegistry) {
+            this.handler = handler;
+            this.name = handler.getClass().getSimpleName();
+            this.batchSize = DistributionSummary.builder("domain.events.batch.size")
+                    .description("Evenements traites par lot")
+                    .tag("handler", name)
+                    .register(meterRegistry);
+            this.errors = Counter.builder("domain.events.handler.errors")
+                    .description("Lots en echec dans un handler")
+                    .tag("handler", name)
+                    .register(meterRegistry);
+            Gauge.builder("domain.events.lag", this, c -> claimed.get() - c.sequence.get())
+                    .description("Evenements publies pas encore traites par le handler")
+                    .tag("handler", name)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                long next = sequence.get() + 1;
+                long last = highestPublished(next, Math.min(claimed.get(), next + maxBatch - 1));
+                if (last >= next) {
+                    List<DomainEvent> batch = new ArrayList<>((int) (last - next + 1));
+                    for (long s = next; s <= last; s++) {
+                        batch.add(entries[(int) s & mask]);
+                    }
+                    try {
+                        handler.onEvents(batch);
+                    } catch (Throwable e) {
+                        // une Error ne doit pas arreter le thread : les producteurs attendraient sa sequence
+                        errors.increment();
+                        log.error("Handler {} en echec sur un lot de {} evenements, reconstruction", name, batch.size(), e);
+                        recover();
+                    }
+                    batchSize.record(batch.size());
+                    // libere les emplacements pour les producteurs
+                    sequence.set(last);
+                    idle = 0;
+                } else if (!running && next > claimed.get()) {
+                    return;
+                } else if (idle++ < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+
+        // La fin du lot a pu ne pas etre appliquee : le handler repart de la base
+        private void recover() {
+            try {
+                handler.recover();
+            } catch (Throwable e) {
+                log.error("Reconstruction du handler {} en echec", name, e);
+            }
+        }
+    }
+
+    public DomainEventBus(List<DomainEventHandler> handlers,
+                          @Value("${events.bus.ring-size:16384}") int ringSize,
+                          @Value("${events.bus.max-batch:1024}") int maxBatch,
+                          MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(ringSize, 2) - 1) << 1;
+        this.entries = new DomainEvent[size];
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.publishedRound = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            publishedRound.set(i, -1);
+        }
+        this.maxBatch = Math.max(maxBatch, 1);
+        this.published = Counter.builder("domain.events.published")
+                .description("Evenements publies sur le bus")
+                .register(meterRegistry);
+        this.ringFull = Counter.builder("domain.events.ring.full")
+                .description("Publications ayant attendu un consommateur en retard")
+                .register(meterRegistry);
+        for (DomainEventHandler handler : handlers) {
+            consumers.add(new Consumer(handler, meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        for (Consumer consumer : consumers) {
+            consumer.thread = new Thread(consumer, "events-" + consumer.name);
+            consumer.thread.setDaemon(true);
+            consumer.thread.start();
+        }
+        log.info("Bus d'evenements demarre ({} emplacements, {} handlers)", entries.length, consumers.size());
+    }
+
+    public void publish(DomainEvent event) {
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > minimumConsumed()) {
+            ringFull.increment();
+            while (wrapPoint > minimumConsumed()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        // ecriture volatile : rend l'evenement visible aux consommateurs qui lisent ce tour
+        publishedRound.set(index, (int) (sequence >>> indexShift));
+        published.increment();
+    }
+
+    /** Arret : les consommateurs terminent ce qui a ete publie avant de s'arreter. */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Consumer consumer : consumers) {
+            consumer.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private boolean isPublished(long sequence) {
+        return publishedRound.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    // Derniere sequence de [from, to] dont toutes les precedentes sont publiees ; from - 1 si aucune
+    private long highestPublished(long from, long to) {
+        long last = from - 1;
+        while (last < to && isPublished(last + 1)) {
+            last++;
+        }
+        return last;
+    }
+
+    private long minimumConsumed() {
+        long minimum = claimed.get();
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence.get());
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,19 @@
+package master.ipld.ligueylu.service.event;
+
+import java.util.List;
+
+/**
+ * Consommateur du bus. Chaque handler a son propre thread et recoit les evenements par lots
+ * consecutifs, dans l'ordre de publication ; il ignore les types qui ne le concernent pas.
+ */
+public interface DomainEventHandler {
+    void onEvents(List<DomainEvent> events);
+
+    /**
+     * Appele apres un lot en echec : une partie du lot n'a peut-etre pas ete appliquee. Le
+     * handler reconstruit depuis la base l'etat qu'il tient a jour ; les lots suivants
+     * s'appliquent ensuite normalement.
+     */
+    default void recover() {
+    }
+}
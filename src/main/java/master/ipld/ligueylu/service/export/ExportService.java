@@ -0,0 +1,84 @@
+package master.ipld.ligueylu.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.repository.reservation.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export NDJSON (un objet JSON par ligne) lu en flux depuis la base : les lignes sont ecrites au
+ * fil de la lecture du curseur, sans jamais constituer de liste, et le contexte de persistance
+ * est vide toutes les {@code clear-every} lignes. La memoire reste constante quelle que soit la
+ * taille de la table. La sortie n'est videe qu'a ce meme rythme, pas apres chaque ligne.
+ */
+@Slf4j
+@Service
+public class ExportService implements IExportService {
+    private final PrestataireRepository prestataireRepository;
+    private final ReservationRepository reservationRepository;
+    private final ObjectMapper objectMapper;
+    private final int clearEvery;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExportService(PrestataireRepository prestataireRepository,
+                         ReservationRepository reservationRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${export.clear-every:1000}") int clearEvery) {
+        this.prestataireRepository = prestataireRepository;
+        this.reservationRepository = reservationRepository;
+        this.objectMapper = objectMapper;
+        this.clearEvery = clearEvery;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPrestataires(OutputStream out) throws IOException {
+        try (Stream<?> rows = prestataireRepository.streamAllDtos()) {
+            return write(rows, out, "prestataires");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportReservations(OutputStream out) throws IOException {
+        try (Stream<?> rows = reservationRepository.streamAllForExport()) {
+            return write(rows, out, "reservations");
+        }
+    }
+
+    private long write(Stream<?> rows, OutputStream out, String label) throws IOException {
+        long count = 0;
+        // writeValue viderait le flux apres chaque ligne : un appel systeme par ligne
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // le flux de la reponse appartient au conteneur : on le vide sans le fermer
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Iterator<?> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.writeValue(generator, iterator.next());
+            generator.writeRaw('\n');
+            if (++count % clearEvery == 0) {
+                entityManager.clear();
+                generator.flush();
+            }
+        }
+        generator.flush();
+        log.info("Export {} : {} lignes", label, count);
+        return count;
+    }
+}
@@ -0,0 +1,9 @@
+package master.ipld.ligueylu.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IExportService {
+    long exportPrestataires(OutputStream out) throws IOException;
+    long exportReservations(OutputStream out) throws IOException;
+}
@@ -0,0 +1,120 @@
+package master.ipld.ligueylu.service.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import master.ipld.ligueylu.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Verrous en memoire par prestataire, pour serialiser les mutations d'un meme agregat sans
+ * {@code SELECT ... FOR UPDATE}. Un verrou n'existe que tant qu'un thread le tient ou l'attend :
+ * deux prestataires differents n'ont jamais de verrou commun (contrairement a un decoupage en
+ * bandes fixes, ou deux identifiants peuvent tomber dans la meme bande), et la table reste
+ * bornee par le nombre de prestataires en cours de modification.
+ * <p>
+ * Metriques : acquisitions, acquisitions contendues, temps d'attente, threads en attente,
+ * abandons apres {@code prestataire.locks.timeout}.
+ */
+@Component
+public class PrestataireLocks {
+
+    private static final class Entry {
+        final ReentrantLock lock = new ReentrantLock();
+        // modifie uniquement dans compute/computeIfPresent de la table
+        int users;
+    }
+
+    private final Map<Long, Entry> locks = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter acquisitions;
+    private final Counter contended;
+    private final Counter timeouts;
+    private final Timer waitTimer;
+
+    public PrestataireLocks(@Value("${prestataire.locks.timeout:PT5S}") Duration timeout,
+                            MeterRegistry meterRegistry) {
+        this.timeoutNanos = timeout.toNanos();
+        this.acquisitions = Counter.builder("prestataire.lock.acquisitions")
+                .description("Verrous de prestataire obtenus")
+                .register(meterRegistry);
+        this.contended = Counter.builder("prestataire.lock.contended")
+                .description("Acquisitions ayant du attendre un autre thread sur le meme prestataire")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("prestataire.lock.timeouts")
+                .description("Acquisitions abandonnees apres le delai d'attente")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("prestataire.lock.wait")
+                .description("Attente des acquisitions contendues")
+                .register(meterRegistry);
+        Gauge.builder("prestataire.lock.waiting", waiting, AtomicInteger::get)
+                .description("Threads en attente d'un verrou de prestataire")
+                .register(meterRegistry);
+        Gauge.builder("prestataire.lock.active", locks, Map::size)
+                .description("Prestataires verrouilles ou attendus")
+                .register(meterRegistry);
+    }
+
+    public <T> T withLock(Long prestataireId, Supplier<T> action) {
+        Entry entry = acquire(prestataireId);
+        try {
+            return action.get();
+        } finally {
+            entry.lock.unlock();
+            release(prestataireId);
+        }
+    }
+
+    public void withLock(Long prestataireId, Runnable action) {
+        withLock(prestataireId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private Entry acquire(Long prestataireId) {
+        Entry entry = locks.compute(prestataireId, (id, current) -> {
+            Entry e = current == null ? new Entry() : current;
+            e.users++;
+            return e;
+        });
+        if (!entry.lock.tryLock()) {
+            contended.increment();
+            waiting.incrementAndGet();
+            long start = System.nanoTime();
+            boolean acquired = false;
+            try {
+                acquired = entry.lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                release(prestataireId);
+                throw new IllegalStateException("Attente du verrou du prestataire interrompue", e);
+            } finally {
+                waiting.decrementAndGet();
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!acquired) {
+                timeouts.increment();
+                release(prestataireId);
+                throw new ServiceOverloadedException("Prestataire en cours de modification, veuillez réessayer dans quelques instants.");
+            }
+        }
+        acquisitions.increment();
+        return entry;
+    }
+
+    private void release(Long prestataireId) {
+        locks.computeIfPresent(prestataireId, (id, entry) -> --entry.users == 0 ? null : entry);
+    }
+}
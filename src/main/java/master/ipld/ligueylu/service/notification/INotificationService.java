@@ -1,4 +1,12 @@
 package master.ipld.ligueylu.service.notification;
 
+import java.util.Map;
+
 public interface INotificationService {
+    /**
+     * Ajoute une notification a l'outbox, dans la transaction courante (obligatoire). Sans effet
+     * si {@code cleDeduplication} a deja ete enregistree.
+     */
+    void publier(String cleDeduplication, String type, String agregat, Long agregatId,
+                 Long destinataireId, Map<String, Object> contenu);
 }
@@ -0,0 +1,44 @@
+package master.ipld.ligueylu.service.notification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Canal en processus, en attendant un fournisseur SMS ou push : journalise le message.
+ * Les cles deja livrees sont retenues pendant {@code notification.sink.dedup-ttl} pour
+ * ecarter les doublons d'une relivraison.
+ */
+@Slf4j
+@Component
+public class LocalNotificationSink implements NotificationSink {
+    private final Cache<String, Boolean> delivered;
+    private final Counter duplicates;
+
+    public LocalNotificationSink(@Value("${notification.sink.dedup-size:100000}") long dedupSize,
+                                 @Value("${notification.sink.dedup-ttl:P1D}") Duration dedupTtl,
+                                 MeterRegistry meterRegistry) {
+        this.delivered = Caffeine.newBuilder()
+                .maximumSize(dedupSize)
+                .expireAfterWrite(dedupTtl)
+                .build();
+        this.duplicates = Counter.builder("notification.sink.duplicates")
+                .description("Notifications deja livrees, ecartees")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void deliver(NotificationMessage message) {
+        if (delivered.asMap().putIfAbsent(message.cleDeduplication(), Boolean.TRUE) != null) {
+            duplicates.increment();
+            return;
+        }
+        log.info("Notification {} pour {} : {}", message.type(), message.destinataireId(), message.contenu());
+    }
+}
@@ -0,0 +1,8 @@
+package master.ipld.ligueylu.service.notification;
+
+import java.util.Date;
+
+/** Notification telle que remise a un canal de livraison. */
+public record NotificationMessage(Long id, String cleDeduplication, String type, String agregat,
+                                  Long agregatId, Long destinataireId, String contenu, Date creeLe) {
+}
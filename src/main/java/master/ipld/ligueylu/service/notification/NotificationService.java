@@ -1,4 +1,42 @@
 package master.ipld.ligueylu.service.notification;
 
-public class NotificationService {
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import master.ipld.ligueylu.model.NotificationOutbox;
+import master.ipld.ligueylu.repository.notification.NotificationOutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Producteur de l'outbox : la notification est validee ou annulee avec l'ecriture metier,
+ * et la requete n'attend jamais sa livraison ({@link OutboxDispatcher}).
+ */
+@Service
+public class NotificationService implements INotificationService {
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public NotificationService(NotificationOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publier(String cleDeduplication, String type, String agregat, Long agregatId,
+                        Long destinataireId, Map<String, Object> contenu) {
+        if (outboxRepository.existsByCleDeduplication(cleDeduplication)) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(contenu);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Contenu de notification non serialisable", e);
+        }
+        outboxRepository.save(new NotificationOutbox(cleDeduplication, type, agregat, agregatId, destinataireId, json));
+    }
 }
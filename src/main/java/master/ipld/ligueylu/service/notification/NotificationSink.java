@@ -0,0 +1,10 @@
+package master.ipld.ligueylu.service.notification;
+
+/**
+ * Canal de livraison (SMS, push...). La livraison est « au moins une fois » : un meme message
+ * peut etre presente plusieurs fois et le canal l'ecarte grace a sa cle de deduplication.
+ * Une exception signale l'echec ; le message sera represente plus tard.
+ */
+public interface NotificationSink {
+    void deliver(NotificationMessage message);
+}
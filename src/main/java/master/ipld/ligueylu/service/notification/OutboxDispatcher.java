@@ -0,0 +1,166 @@
+package master.ipld.ligueylu.service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.model.NotificationOutbox;
+import master.ipld.ligueylu.model.enums.StatutNotification;
+import master.ipld.ligueylu.repository.notification.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vide l'outbox par lots, hors du chemin des requetes.
+ * <ol>
+ *     <li>Reclamation : un lot est lu en {@code FOR UPDATE SKIP LOCKED} puis marque
+ *     {@code verrouilleJusqua = now + lease}, dans une transaction courte. Les autres instances
+ *     sautent ces lignes au lieu de les attendre.</li>
+ *     <li>Livraison hors transaction.</li>
+ *     <li>Acquittement : les livres passent ENVOYEE, les echecs sont reprogrammes avec un delai
+ *     exponentiel, puis ECHEC apres {@code max-attempts}.</li>
+ * </ol>
+ * Un arret entre livraison et acquittement laisse expirer le bail : le lot est relivre, d'ou
+ * la livraison « au moins une fois » et la deduplication cote canal.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter abandonedCounter;
+
+    public OutboxDispatcher(NotificationOutboxRepository outboxRepository,
+                            NotificationSink sink,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${notification.outbox.batch-size:100}") int batchSize,
+                            @Value("${notification.outbox.max-batches-per-run:50}") int maxBatchesPerRun,
+                            @Value("${notification.outbox.lease:PT1M}") Duration lease,
+                            @Value("${notification.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${notification.outbox.retention:P7D}") Duration retention,
+                            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retention = retention;
+        this.deliveredCounter = Counter.builder("notification.outbox.delivered")
+                .description("Notifications livrees")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("notification.outbox.failed")
+                .description("Tentatives de livraison en echec")
+                .register(meterRegistry);
+        this.abandonedCounter = Counter.builder("notification.outbox.abandoned")
+                .description("Notifications abandonnees apres le nombre maximal de tentatives")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (dispatchBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /** Reclame, livre et acquitte un lot ; renvoie le nombre de notifications reclamees. */
+    public int dispatchBatch() {
+        List<NotificationMessage> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        List<Long> delivered = new ArrayList<>(claimed.size());
+        Map<Long, String> failures = new HashMap<>();
+        for (NotificationMessage message : claimed) {
+            try {
+                sink.deliver(message);
+                delivered.add(message.id());
+            } catch (RuntimeException e) {
+                failures.put(message.id(), String.valueOf(e.getMessage()));
+            }
+        }
+        acknowledge(delivered, failures);
+        return claimed.size();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.purge-interval:PT1H}")
+    public void purge() {
+        Date before = new Date(System.currentTimeMillis() - retention.toMillis());
+        Integer purged = transactionTemplate.execute(status -> outboxRepository.purgeSentBefore(before));
+        if (purged != null && purged > 0) {
+            log.debug("{} notifications envoyees purgees de l'outbox", purged);
+        }
+    }
+
+    private List<NotificationMessage> claim() {
+        return transactionTemplate.execute(status -> {
+            Date now = new Date();
+            Date leaseEnd = new Date(now.getTime() + lease.toMillis());
+            List<NotificationMessage> messages = new ArrayList<>();
+            for (NotificationOutbox row : outboxRepository.claimable(now, Limit.of(batchSize))) {
+                row.setVerrouilleJusqua(leaseEnd);
+                messages.add(new NotificationMessage(row.getId(), row.getCleDeduplication(), row.getType(),
+                        row.getAgregat(), row.getAgregatId(), row.getDestinataireId(), row.getContenu(), row.getCreeLe()));
+            }
+            return messages;
+        });
+    }
+
+    private void acknowledge(List<Long> delivered, Map<Long, String> failures) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Date now = new Date();
+            if (!delivered.isEmpty()) {
+                outboxRepository.markSent(delivered, now);
+            }
+            for (NotificationOutbox row : outboxRepository.findAllById(failures.keySet())) {
+                int attempts = row.getTentatives() + 1;
+                row.setTentatives(attempts);
+                row.setDerniereErreur(truncate(failures.get(row.getId())));
+                row.setVerrouilleJusqua(null);
+                if (attempts >= maxAttempts) {
+                    row.setStatut(StatutNotification.ECHEC);
+                    abandonedCounter.increment();
+                    log.warn("Notification {} abandonnee apres {} tentatives : {}", row.getCleDeduplication(), attempts, row.getDerniereErreur());
+                } else {
+                    row.setDisponibleLe(new Date(now.getTime() + backoff(attempts).toMillis()));
+                }
+            }
+        });
+        deliveredCounter.increment(delivered.size());
+        failedCounter.increment(failures.size());
+    }
+
+    // 2s, 4s, 8s... plafonne a une heure
+    private static Duration backoff(int attempts) {
+        Duration delay = Duration.ofSeconds(1L << Math.min(attempts, 12));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -1,4 +1,8 @@
 package master.ipld.ligueylu.service.paiement;
 
+import master.ipld.ligueylu.model.Paiement;
+import master.ipld.ligueylu.model.enums.Status;
+
 public interface IPaiementService {
+    Paiement changerStatus(Long paiementId, Status status);
 }
@@ -1,4 +1,47 @@
 package master.ipld.ligueylu.service.paiement;
 
-public class PaiementService {
+import master.ipld.ligueylu.exception.ResourceNotFoundException;
+import master.ipld.ligueylu.model.Paiement;
+import master.ipld.ligueylu.model.enums.Status;
+import master.ipld.ligueylu.repository.paiement.PaiementRepository;
+import master.ipld.ligueylu.service.notification.INotificationService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class PaiementService implements IPaiementService {
+    private final PaiementRepository paiementRepository;
+    private final INotificationService notificationService;
+
+    public PaiementService(PaiementRepository paiementRepository, INotificationService notificationService) {
+        this.paiementRepository = paiementRepository;
+        this.notificationService = notificationService;
+    }
+
+    @Override
+    @Transactional
+    public Paiement changerStatus(Long paiementId, Status status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Le statut du paiement est obligatoire");
+        }
+        Paiement paiement = paiementRepository.findById(paiementId)
+                .orElseThrow(() -> new ResourceNotFoundException("Paiement introuvable avec l'id : " + paiementId));
+        if (paiement.getStatus() == status) {
+            return paiement;
+        }
+        paiement.setStatus(status);
+        Long prestataireId = paiement.getService() != null && paiement.getService().getPrestataire() != null
+                ? paiement.getService().getPrestataire().getId() : null;
+        Map<String, Object> contenu = new HashMap<>();
+        contenu.put("paiementId", paiement.getId());
+        contenu.put("montant", paiement.getMontant());
+        contenu.put("methode", paiement.getMethode());
+        contenu.put("status", status);
+        notificationService.publier("paiement:" + paiement.getId() + ":" + status, "PAIEMENT_" + status,
+                "PAIEMENT", paiement.getId(), prestataireId, contenu);
+        return paiement;
+    }
 }
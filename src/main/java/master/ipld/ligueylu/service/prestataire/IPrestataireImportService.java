@@ -0,0 +1,10 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import master.ipld.ligueylu.response.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IPrestataireImportService {
+    ImportReport importPrestataires(InputStream in, PrestataireImportReader.Format format) throws IOException;
+}
@@ -1,8 +1,17 @@
 package master.ipld.ligueylu.service.prestataire;
 
+import master.ipld.ligueylu.dto.ClassementDto;
+import master.ipld.ligueylu.dto.NearbyPrestataireDto;
+import master.ipld.ligueylu.dto.PrestataireDto;
+import master.ipld.ligueylu.dto.ReservationDto;
+import master.ipld.ligueylu.dto.ServiceDto;
+import master.ipld.ligueylu.dto.SpecialiteDto;
+import master.ipld.ligueylu.dto.SuggestionDto;
 import master.ipld.ligueylu.model.*;
 import master.ipld.ligueylu.request.*;
+import master.ipld.ligueylu.response.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -11,28 +20,38 @@ import java.util.Set;
 public interface IPrestataireService {
     Prestataire addPrestataire(AddPrestataireRequest prestataire);
     List<Prestataire> getAllPrestataire();
+    CursorPage<PrestataireDto> getPrestataires(String cursor, Integer limit);
     Prestataire getPrestataireByEmail(String email);
     Prestataire getPrestataireById(Long id);
+    PrestataireDto getPrestataireDtoByEmail(String email);
+    PrestataireDto getPrestataireDtoById(Long id);
     Prestataire updatePrestataire(UpdatePrestataireRequest prestataire, Long id);
     void deletePrestataire(Long id);
     Optional<Prestataire> isPrestataireActif(Long prestataireId);
-    boolean activatePrestataire(Long id);
-    List<Prestataire> searchBySpecialite(String nomSpecialite);
-    Optional<Prestataire> findByAdresse(String ville);
+    Prestataire activatePrestataire(Long id);
+    List<PrestataireDto> searchBySpecialite(String nomSpecialite);
+    List<SuggestionDto> suggest(String query, Integer limit);
+    List<PrestataireDto> findByAdresse(String ville);
+    List<NearbyPrestataireDto> findNearby(double latitude, double longitude, Double radiusKm, String specialite, Integer limit);
+    List<PrestataireDto> findDisponibles(String specialite, LocalDateTime debut, LocalDateTime fin, Integer limit);
     List<Prestataire> findByScoreGreaterThan(double minScore);
-    void updateScore(ScoreUpdateRequest scoreUpdateRequest);
+    CursorPage<PrestataireDto> findByScoreGreaterThan(double minScore, String cursor, Integer limit);
+    List<PrestataireDto> getTopPrestataires(Integer limit);
+    ClassementDto getClassement(Long prestataireId);
+    Prestataire updateScore(ScoreUpdateRequest scoreUpdateRequest);
 
     double getScore(Long prestataireId);
     Adresse getAdresse(Long prestataireId);
-    void updateAdressePrestataire(UpdateAdressPrestRequest updateAdressPrestRequest);
+    Prestataire updateAdressePrestataire(UpdateAdressPrestRequest updateAdressPrestRequest);
     Map<String, Long> countPrestatairesBySpecialite();
-    Set<Specialite> getSpecialitesFromPrestataire(Long prestataireId);
-    void addSpecialiteToPrestataire(AddSpecialitePrestRequest request);
-    void removeSpecialiteToPrestataire(AddSpecialitePrestRequest request);
-    List<Service> getServicesByPrestataire(Long prestataireId);
+    List<SpecialiteDto> getSpecialitesFromPrestataire(Long prestataireId);
+    Prestataire addSpecialiteToPrestataire(AddSpecialitePrestRequest request);
+    Prestataire removeSpecialiteToPrestataire(AddSpecialitePrestRequest request);
+    List<ServiceDto> getServicesByPrestataire(Long prestataireId);
     Service addServiceToPrestataire(AddServicePrestRequest request);
-    void removeServiceFromPrestataire(AddServicePrestRequest request);
-    List<Reservation> getReservationsByPrestataire(Long prestataireId);
+    Prestataire removeServiceFromPrestataire(AddServicePrestRequest request);
+    List<ReservationDto> getReservationsByPrestataire(Long prestataireId);
+    CursorPage<ReservationDto> getReservationsByPrestataire(Long prestataireId, String cursor, Integer limit);
     void cancelReservation(AddReservationPrestRequest request);
     Reservation addReservationToPrestataire(AddReservationPrestRequest request);
 }
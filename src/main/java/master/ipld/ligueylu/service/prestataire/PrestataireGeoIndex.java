@@ -0,0 +1,206 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Index spatial en memoire des prestataires actifs geolocalises : une grille de cellules
+ * de {@value #CELL_DEGREES} degre (~5,5 km en latitude). Une recherche des k plus proches
+ * parcourt les cellules par cercles croissants autour du point, calcule la distance exacte
+ * (haversine) sur ces seuls candidats et s'arrete des que le resultat ne peut plus changer. Le chargement initial ignore les prestataires
+ * modifies pendant sa lecture : leur position courante est plus recente que la sienne.
+ */
+@Slf4j
+@Component
+public class PrestataireGeoIndex {
+    public static final double MAX_RADIUS_KM = 200;
+    private static final double CELL_DEGREES = 0.05;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    // longueur d'un degre de meridien sur la sphere de rayon EARTH_RADIUS_KM
+    private static final double KM_PER_DEGREE = Math.toRadians(EARTH_RADIUS_KM);
+    private static final long LONGITUDE_CELLS = Math.round(360 / CELL_DEGREES);
+
+    public record Hit(long prestataireId, double distanceKm) {}
+
+    private record Point(double latitude, double longitude, long cell) {}
+
+    private final PrestataireRepository prestataireRepository;
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    // prestataires modifies pendant le chargement initial, null hors chargement ; garde par this
+    private Set<Long> touchedDuringWarmUp;
+
+    public PrestataireGeoIndex(PrestataireRepository prestataireRepository) {
+        this.prestataireRepository = prestataireRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        synchronized (this) {
+            touchedDuringWarmUp = new HashSet<>();
+        }
+        List<Object[]> rows = prestataireRepository.findActiveCoordinates();
+        synchronized (this) {
+            for (Object[] row : rows) {
+                if (!touchedDuringWarmUp.contains((Long) row[0])) {
+                    place((Long) row[0], (Double) row[1], (Double) row[2]);
+                }
+            }
+            touchedDuringWarmUp = null;
+        }
+        log.info("Index geographique charge ({} prestataires)", rows.size());
+    }
+
+    public synchronized void put(Long prestataireId, Double latitude, Double longitude) {
+        touch(prestataireId);
+        place(prestataireId, latitude, longitude);
+    }
+
+    public synchronized void remove(Long prestataireId) {
+        touch(prestataireId);
+        unplace(prestataireId);
+    }
+
+    private void touch(Long prestataireId) {
+        if (touchedDuringWarmUp != null) {
+            touchedDuringWarmUp.add(prestataireId);
+        }
+    }
+
+    private void place(Long prestataireId, Double latitude, Double longitude) {
+        unplace(prestataireId);
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        long cell = cell(latitude, longitude);
+        points.put(prestataireId, new Point(latitude, longitude, cell));
+        cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(prestataireId);
+    }
+
+    private void unplace(Long prestataireId) {
+        Point previous = points.remove(prestataireId);
+        if (previous != null) {
+            Set<Long> ids = cells.get(previous.cell());
+            if (ids != null) {
+                ids.remove(prestataireId);
+            }
+        }
+    }
+
+    /**
+     * Les {@code k} prestataires acceptes par {@code filter} les plus proches, dans le rayon donne,
+     * tries par distance croissante.
+     * <p>
+     * La recherche s'etend par paliers d'une hauteur de cellule : chaque palier parcourt les
+     * nouvelles cellules du rectangle qui contient le cercle de ce rayon. Elle s'arrete des
+     * que le k-ieme meilleur est plus proche que le rayon deja couvert : aucun prestataire
+     * hors des cellules parcourues ne peut alors le battre. Le rectangle tient compte de
+     * l'antimeridien (longitudes repliees) et des poles (toutes les longitudes).
+     */
+    public List<Hit> nearest(double latitude, double longitude, double radiusKm, int k, LongPredicate filter) {
+        double radius = Math.min(radiusKm, MAX_RADIUS_KM);
+        if (k <= 0 || radius < 0) {
+            return List.of();
+        }
+        // k meilleurs vus, le plus lointain en tete
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+        Set<Long> visited = new HashSet<>();
+        double step = CELL_DEGREES * KM_PER_DEGREE;
+        for (double covered = Math.min(step, radius); ; covered = Math.min(covered + step, radius)) {
+            scanBox(latitude, longitude, covered, radius, k, filter, best, visited);
+            if (covered >= radius || (best.size() == k && best.peek().distanceKm() <= covered)) {
+                break;
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    // Parcourt les cellules non encore visitees du rectangle qui contient le cercle de rayon reach
+    private void scanBox(double latitude, double longitude, double reach, double radius, int k, LongPredicate filter,
+                         PriorityQueue<Hit> best, Set<Long> visited) {
+        double angle = reach / EARTH_RADIUS_KM;
+        double latitudeSpan = Math.toDegrees(angle);
+        long minLat = cellIndex(Math.max(latitude - latitudeSpan, -90));
+        long maxLat = cellIndex(Math.min(latitude + latitudeSpan, 90));
+        long minLon;
+        long maxLon;
+        double sinReach = Math.sin(angle);
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        if (latitude + latitudeSpan >= 90 || latitude - latitudeSpan <= -90 || sinReach >= cosLatitude) {
+            // un pole est dans le cercle : toutes les longitudes
+            minLon = -LONGITUDE_CELLS / 2;
+            maxLon = minLon + LONGITUDE_CELLS - 1;
+        } else {
+            double longitudeSpan = Math.toDegrees(Math.asin(sinReach / cosLatitude));
+            // une cellule de marge : le repli de l'antimeridien arrondit les bords
+            minLon = cellIndex(longitude - longitudeSpan) - 1;
+            maxLon = Math.min(cellIndex(longitude + longitudeSpan) + 1, minLon + LONGITUDE_CELLS - 1);
+        }
+        for (long cellLat = minLat; cellLat <= maxLat; cellLat++) {
+            for (long cellLon = minLon; cellLon <= maxLon; cellLon++) {
+                long key = key(cellLat, wrapLongitude(cellLon));
+                if (!visited.add(key)) {
+                    continue;
+                }
+                Set<Long> ids = cells.get(key);
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Point point = points.get(id);
+                    if (point == null || !filter.test(id)) {
+                        continue;
+                    }
+                    double distance = haversine(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance <= radius && (best.size() < k || distance < best.peek().distanceKm())) {
+                        best.add(new Hit(id, distance));
+                        if (best.size() > k) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long cell(double latitude, double longitude) {
+        return key(cellIndex(latitude), wrapLongitude(cellIndex(longitude)));
+    }
+
+    // Ramene un indice de cellule de longitude dans [-180, 180[
+    private static long wrapLongitude(long cellLon) {
+        return Math.floorMod(cellLon + LONGITUDE_CELLS / 2, LONGITUDE_CELLS) - LONGITUDE_CELLS / 2;
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(long cellLat, long cellLon) {
+        return (cellLat << 32) | (cellLon & 0xFFFFFFFFL);
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
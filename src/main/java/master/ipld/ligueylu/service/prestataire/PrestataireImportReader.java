@@ -0,0 +1,170 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import master.ipld.ligueylu.model.enums.TypeService;
+import master.ipld.ligueylu.request.ImportPrestataireRow;
+import master.ipld.ligueylu.request.ImportServiceRow;
+import master.ipld.ligueylu.util.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lit un import de prestataires ligne a ligne, en CSV ou en NDJSON.
+ * <p>
+ * CSV : une ligne d'en-tete ({@code email,nomComplet,telephone,password,specialites,services}, dans
+ * n'importe quel ordre), les specialites separees par {@code |} et les services au format
+ * {@code TYPE:duree:tarif[:description]}, eux aussi separes par {@code |}.
+ * NDJSON : un objet {@link ImportPrestataireRow} par ligne.
+ */
+public class PrestataireImportReader implements Closeable {
+    public enum Format { CSV, NDJSON }
+
+    /** Une ligne lue : soit {@code row}, soit {@code error}. */
+    public record Parsed(long ligne, ImportPrestataireRow row, String error) {}
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("email", "nomcomplet", "password");
+
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private final BufferedReader lines;
+    private final CsvReader csv;
+    private Map<String, Integer> columns;
+    private long lineNumber;
+
+    public PrestataireImportReader(InputStream in, Format format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.lines = format == Format.NDJSON ? reader : null;
+        this.csv = format == Format.CSV ? new CsvReader(reader, ',') : null;
+    }
+
+    /** Ligne suivante, ou {@code null} en fin de flux. */
+    public Parsed next() throws IOException {
+        return format == Format.CSV ? nextCsv() : nextJson();
+    }
+
+    private Parsed nextJson() throws IOException {
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                return new Parsed(lineNumber, objectMapper.readValue(line, ImportPrestataireRow.class), null);
+            } catch (JsonProcessingException e) {
+                return new Parsed(lineNumber, null, "JSON invalide : " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    private Parsed nextCsv() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                return new Parsed(csv.recordLine(), toRow(fields), null);
+            } catch (IllegalArgumentException e) {
+                return new Parsed(csv.recordLine(), null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = csv.next();
+        if (header == null) {
+            columns = Map.of();
+            return;
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Colonne obligatoire absente de l'en-tete CSV : " + required);
+            }
+        }
+    }
+
+    private ImportPrestataireRow toRow(List<String> fields) {
+        ImportPrestataireRow row = new ImportPrestataireRow();
+        row.setEmail(field(fields, "email"));
+        row.setNomComplet(field(fields, "nomcomplet"));
+        row.setTelephone(field(fields, "telephone"));
+        row.setPassword(field(fields, "password"));
+        String specialites = field(fields, "specialites");
+        if (specialites != null) {
+            for (String libelle : specialites.split("\\|")) {
+                if (!libelle.isBlank()) {
+                    row.getSpecialites().add(libelle.trim());
+                }
+            }
+        }
+        String services = field(fields, "services");
+        if (services != null) {
+            for (String service : services.split("\\|")) {
+                if (!service.isBlank()) {
+                    row.getServices().add(toService(service.trim()));
+                }
+            }
+        }
+        return row;
+    }
+
+    private static ImportServiceRow toService(String value) {
+        String[] parts = value.split(":", 4);
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Service invalide (TYPE:duree:tarif attendu) : " + value);
+        }
+        ImportServiceRow service = new ImportServiceRow();
+        try {
+            service.setTypeService(TypeService.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)));
+            service.setDuree(Integer.parseInt(parts[1].trim()));
+            service.setTarifStandard(Double.parseDouble(parts[2].trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Service invalide : " + value);
+        }
+        if (parts.length == 4) {
+            service.setDescription(parts[3].trim());
+        }
+        return service;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csv != null) {
+            csv.close();
+        } else {
+            lines.close();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.exception.ServiceOverloadedException;
+import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.model.Service;
+import master.ipld.ligueylu.model.Specialite;
+import master.ipld.ligueylu.repository.specialite.SpecialiteRepository;
+import master.ipld.ligueylu.repository.utilisateur.UtilisateurRepository;
+import master.ipld.ligueylu.request.ImportPrestataireRow;
+import master.ipld.ligueylu.request.ImportServiceRow;
+import master.ipld.ligueylu.response.ImportReport;
+import master.ipld.ligueylu.service.authentication.EmailExistenceIndex;
+import master.ipld.ligueylu.service.specialite.SpecialiteCounters;
+import master.ipld.ligueylu.service.specialite.SpecialiteSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Import en masse de prestataires (CSV ou NDJSON) avec leurs specialites et services.
+ * Le flux est lu par paquets de {@code chunk-size} lignes : la memoire reste bornee quelle que
+ * soit la taille du fichier. Pour chaque paquet, les mots de passe sont haches en parallele, les
+ * emails deja connus sont ecartes en une requete, puis le paquet est ecrit dans sa propre
+ * transaction, en lots JDBC. Les specialites sont resolues par une table libelle -> id chargee
+ * une seule fois.
+ */
+@Slf4j
+@org.springframework.stereotype.Service
+public class PrestataireImportService implements IPrestataireImportService {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern PASSWORD = Pattern.compile("^[a-zA-Z0-9]{8,20}$");
+    private static final Pattern TELEPHONE = Pattern.compile("\\d{7,9}");
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final SpecialiteRepository specialiteRepository;
+    private final EmailExistenceIndex emailExistenceIndex;
+    private final SpecialiteSearchIndex specialiteSearchIndex;
+    private final SpecialiteCounters specialiteCounters;
+    private final PrestataireSuggestionIndex suggestionIndex;
+    private final ScoreLeaderboard scoreLeaderboard;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ExecutorService hashPool;
+    private final int chunkSize;
+    private final int maxErrors;
+    // un seul import a la fois : il occupe deja tous les coeurs pour BCrypt
+    private final Semaphore running = new Semaphore(1);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PrestataireImportService(UtilisateurRepository utilisateurRepository,
+                                    SpecialiteRepository specialiteRepository,
+                                    EmailExistenceIndex emailExistenceIndex,
+                                    SpecialiteSearchIndex specialiteSearchIndex,
+                                    SpecialiteCounters specialiteCounters,
+                                    PrestataireSuggestionIndex suggestionIndex,
+                                    ScoreLeaderboard scoreLeaderboard,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${security.bcrypt.strength:10}") int strength,
+                                    @Value("${prestataire.import.hash-pool-size:0}") int hashPoolSize,
+                                    @Value("${prestataire.import.chunk-size:500}") int chunkSize,
+                                    @Value("${prestataire.import.max-errors:1000}") int maxErrors) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.specialiteRepository = specialiteRepository;
+        this.emailExistenceIndex = emailExistenceIndex;
+        this.specialiteSearchIndex = specialiteSearchIndex;
+        this.specialiteCounters = specialiteCounters;
+        this.suggestionIndex = suggestionIndex;
+        this.scoreLeaderboard = scoreLeaderboard;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        int threads = hashPoolSize > 0 ? hashPoolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "import-bcrypt-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    /** Ligne validee, prete a etre ecrite. */
+    private record Pending(long ligne, ImportPrestataireRow row, Future<String> hash) {}
+
+    /**
+     * Ligne ecrite dans la transaction du paquet, pour mettre a jour les index apres commit.
+     * {@code libelles} : libelles tels qu'enregistres, pas l'orthographe de la ligne.
+     */
+    private record Written(Prestataire prestataire, List<String> libelles) {}
+
+    /** Specialite deja en base ou creee par l'import, indexee par libelle en minuscules. */
+    private record KnownSpecialite(Long id, String libelle) {}
+
+    @Override
+    public ImportReport importPrestataires(InputStream in, PrestataireImportReader.Format format) throws IOException {
+        if (!running.tryAcquire()) {
+            throw new ServiceOverloadedException("Un import de prestataires est deja en cours");
+        }
+        try (PrestataireImportReader reader = new PrestataireImportReader(in, format, objectMapper)) {
+            ImportReport report = new ImportReport();
+            long start = System.nanoTime();
+            Map<String, KnownSpecialite> specialites = loadSpecialites();
+            List<PrestataireImportReader.Parsed> chunk = new ArrayList<>(chunkSize);
+            PrestataireImportReader.Parsed parsed;
+            while ((parsed = reader.next()) != null) {
+                report.setLignesLues(report.getLignesLues() + 1);
+                chunk.add(parsed);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, specialites, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, specialites, report);
+            }
+            long millis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+            report.setDureeMs(millis);
+            report.setLignesParSeconde(report.getLignesLues() * 1000.0 / millis);
+            log.info("Import de prestataires : {} lignes, {} importees, {} rejetees en {} ms",
+                    report.getLignesLues(), report.getLignesImportees(), report.getLignesRejetees(), millis);
+            return report;
+        } finally {
+            running.release();
+        }
+    }
+
+    private Map<String, KnownSpecialite> loadSpecialites() {
+        Map<String, KnownSpecialite> specialites = new HashMap<>();
+        for (Object[] row : specialiteRepository.findAllLibellesAndIds()) {
+            String libelle = (String) row[0];
+            specialites.putIfAbsent(key(libelle), new KnownSpecialite((Long) row[1], libelle));
+        }
+        return specialites;
+    }
+
+    private void importChunk(List<PrestataireImportReader.Parsed> chunk, Map<String, KnownSpecialite> specialites, ImportReport report) {
+        // 1. validation et doublons dans le paquet
+        List<PrestataireImportReader.Parsed> valid = new ArrayList<>(chunk.size());
+        Set<String> emails = new HashSet<>();
+        for (PrestataireImportReader.Parsed parsed : chunk) {
+            String error = parsed.error() != null ? parsed.error() : validate(parsed.row());
+            if (error == null && !emails.add(parsed.row().getEmail())) {
+                error = "Email en double dans le fichier";
+            }
+            if (error != null) {
+                reject(report, parsed.ligne(), parsed.row() == null ? null : parsed.row().getEmail(), error);
+            } else {
+                valid.add(parsed);
+            }
+        }
+
+        // 2. emails deja en base : une seule requete, limitee a ceux que le filtre de Bloom ne peut ecarter
+        List<String> suspects = emails.stream().filter(emailExistenceIndex::mightExist).toList();
+        Set<String> existing = suspects.isEmpty() ? Set.of() : new HashSet<>(utilisateurRepository.findExistingEmails(suspects));
+
+        // 3. hachage en parallele
+        List<Pending> pending = new ArrayList<>(valid.size());
+        for (PrestataireImportReader.Parsed parsed : valid) {
+            ImportPrestataireRow row = parsed.row();
+            if (existing.contains(row.getEmail())) {
+                reject(report, parsed.ligne(), row.getEmail(), "Un utilisateur avec cet email existe deja");
+                continue;
+            }
+            String password = row.getPassword();
+            Future<String> hash = BCRYPT_HASH.matcher(password).matches()
+                    ? CompletableFuture.completedFuture(password)
+                    : hashPool.submit(() -> passwordEncoder.encode(password));
+            pending.add(new Pending(parsed.ligne(), row, hash));
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // 4. ecriture du paquet dans sa transaction
+        Set<String> created = new HashSet<>();
+        List<Written> written;
+        try {
+            written = transactionTemplate.execute(status -> write(pending, specialites, created));
+        } catch (RuntimeException e) {
+            created.forEach(specialites::remove);
+            log.warn("Paquet d'import annule ({} lignes)", pending.size(), e);
+            for (Pending p : pending) {
+                reject(report, p.ligne(), p.row().getEmail(), "Paquet annule : " + rootMessage(e));
+            }
+            return;
+        }
+
+        // 5. index en memoire, une fois le paquet valide
+        long[] ids = new long[written.size()];
+        double[] scores = new double[written.size()];
+        for (int i = 0; i < written.size(); i++) {
+            Prestataire prestataire = written.get(i).prestataire();
+            ids[i] = prestataire.getId();
+            scores[i] = prestataire.getScore();
+        }
+        scoreLeaderboard.updateAll(ids, scores);
+        for (Written w : written) {
+            Prestataire prestataire = w.prestataire();
+            emailExistenceIndex.add(prestataire.getEmail());
+            suggestionIndex.putPrestataire(prestataire.getId(), prestataire.getNomComplet());
+            for (String libelle : w.libelles()) {
+                specialiteSearchIndex.add(libelle, prestataire.getId());
+                specialiteCounters.increment(libelle);
+                suggestionIndex.putSpecialite(libelle);
+            }
+        }
+        report.setLignesImportees(report.getLignesImportees() + written.size());
+    }
+
+    private List<Written> write(List<Pending> pending, Map<String, KnownSpecialite> specialites, Set<String> created) {
+        List<Written> written = new ArrayList<>(pending.size());
+        for (Pending p : pending) {
+            ImportPrestataireRow row = p.row();
+            Prestataire prestataire = new Prestataire(row.getEmail(), row.getNomComplet(), await(p.hash()), row.getTelephone());
+            List<String> libelles = new ArrayList<>();
+            for (String libelle : row.getSpecialites()) {
+                String key = key(libelle);
+                KnownSpecialite known = specialites.get(key);
+                if (known == null) {
+                    Specialite specialite = new Specialite();
+                    specialite.setLibelle(libelle.trim());
+                    entityManager.persist(specialite);
+                    known = new KnownSpecialite(specialite.getId(), specialite.getLibelle());
+                    specialites.put(key, known);
+                    created.add(key);
+                }
+                Specialite reference = entityManager.getReference(Specialite.class, known.id());
+                if (prestataire.getSpecialites().add(reference)) {
+                    // index et compteurs sont tenus sous le libelle enregistre, pas l'orthographe de la ligne
+                    libelles.add(known.libelle());
+                }
+            }
+            entityManager.persist(prestataire);
+            for (ImportServiceRow serviceRow : row.getServices()) {
+                Service service = new Service();
+                service.setTypeService(serviceRow.getTypeService());
+                service.setDuree(serviceRow.getDuree());
+                service.setTarifStandard(serviceRow.getTarifStandard());
+                service.setDescription(serviceRow.getDescription());
+                service.setPrestataire(prestataire);
+                entityManager.persist(service);
+            }
+            written.add(new Written(prestataire, libelles));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return written;
+    }
+
+    private static String validate(ImportPrestataireRow row) {
+        if (row.getEmail() == null || !EMAIL.matcher(row.getEmail()).matches()) {
+            return "Email invalide";
+        }
+        if (row.getNomComplet() == null || row.getNomComplet().trim().length() < 3) {
+            return "Le nom complet doit contenir au moins 3 caracteres";
+        }
+        if (row.getPassword() == null
+                || !(PASSWORD.matcher(row.getPassword()).matches() || BCRYPT_HASH.matcher(row.getPassword()).matches())) {
+            return "Le mot de passe doit etre alphanumerique, entre 8 et 20 caracteres";
+        }
+        if (row.getTelephone() != null && !TELEPHONE.matcher(row.getTelephone()).matches()) {
+            return "Le numero de telephone doit contenir entre 7 et 9 chiffres";
+        }
+        for (String libelle : row.getSpecialites()) {
+            if (libelle == null || libelle.isBlank()) {
+                return "Specialite vide";
+            }
+        }
+        for (ImportServiceRow service : row.getServices()) {
+            if (service == null || service.getTypeService() == null || service.getDuree() < 0 || service.getTarifStandard() < 0) {
+                return "Service invalide";
+            }
+        }
+        return null;
+    }
+
+    private void reject(ImportReport report, long ligne, String email, String message) {
+        report.setLignesRejetees(report.getLignesRejetees() + 1);
+        if (report.getErreurs().size() < maxErrors) {
+            report.getErreurs().add(new ImportReport.Erreur(ligne, email, message));
+        }
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Echec du hachage du mot de passe", e.getCause());
+        }
+    }
+
+    private static String key(String libelle) {
+        return libelle.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
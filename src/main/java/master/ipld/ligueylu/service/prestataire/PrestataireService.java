@@ -1,7 +1,17 @@
 package master.ipld.ligueylu.service.prestataire;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.dto.ClassementDto;
+import master.ipld.ligueylu.dto.NearbyPrestataireDto;
+import master.ipld.ligueylu.dto.PrestataireDto;
+import master.ipld.ligueylu.dto.ReservationDto;
+import master.ipld.ligueylu.dto.ServiceDto;
+import master.ipld.ligueylu.dto.SpecialiteDto;
+import master.ipld.ligueylu.dto.SuggestionDto;
 import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
 import master.ipld.ligueylu.exception.ResourceNotFoundException;
 import master.ipld.ligueylu.model.Adresse;
@@ -14,10 +24,31 @@ import master.ipld.ligueylu.repository.reservation.ReservationRepository;
 import master.ipld.ligueylu.repository.service.ServiceRepository;
 import master.ipld.ligueylu.repository.specialite.SpecialiteRepository;
 import master.ipld.ligueylu.request.*;
+import master.ipld.ligueylu.response.CursorPage;
+import master.ipld.ligueylu.service.authentication.CustomUserDetailsService;
+import master.ipld.ligueylu.service.authentication.EmailExistenceIndex;
+import master.ipld.ligueylu.service.event.DomainEvent;
+import master.ipld.ligueylu.service.event.DomainEventBus;
+import master.ipld.ligueylu.service.lock.PrestataireLocks;
+import master.ipld.ligueylu.service.reservation.AvailabilityBitmaps;
+import master.ipld.ligueylu.service.reservation.IReservationService;
+import master.ipld.ligueylu.service.reservation.ReservationSlotIndex;
+import master.ipld.ligueylu.service.security.TokenRevocationService;
+import master.ipld.ligueylu.service.specialite.SpecialiteCounters;
+import master.ipld.ligueylu.service.specialite.SpecialiteSearchIndex;
+import master.ipld.ligueylu.util.Cursors;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -27,15 +58,63 @@ public class PrestataireService implements IPrestataireService {
     private final SpecialiteRepository specialiteRepository;
     private final ServiceRepository serviceRepository;
     private final ReservationRepository reservationRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final CustomUserDetailsService userDetailsService;
+    private final EmailExistenceIndex emailExistenceIndex;
+    private final SpecialiteSearchIndex specialiteSearchIndex;
+    private final SpecialiteCounters specialiteCounters;
+    private final PrestataireSuggestionIndex suggestionIndex;
+    private final PrestataireGeoIndex geoIndex;
+    private final ScoreLeaderboard scoreLeaderboard;
+    private final IReservationService reservationService;
+    private final ReservationSlotIndex slotIndex;
+    private final AvailabilityBitmaps availability;
+    private final PrestataireLocks prestataireLocks;
+    private final DomainEventBus eventBus;
+    private final PlatformTransactionManager transactionManager;
+    private TransactionTemplate lockedTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private record Mutation(Prestataire prestataire, DomainEvent event) {}
+
+    @PostConstruct
+    void initTransactions() {
+        lockedTransaction = new TransactionTemplate(transactionManager);
+        lockedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Transaction a ouvrir sous le verrou du prestataire : elle est validee avant sa liberation. */
+    private <T> T inNewTransaction(Supplier<T> work) {
+        return lockedTransaction.execute(status -> work.get());
+    }
+
+    /**
+     * Lecture du prestataire sous son verrou. Avec open-in-view, la requete a pu le charger avant
+     * le verrou : {@code findById} rendrait cette copie, et deux mises a jour concurrentes
+     * ecriraient chacune la ligne lue avant l'autre. {@code refresh} la relit en base.
+     */
+    private Optional<Prestataire> findForUpdate(Long id) {
+        return prestataireRepository.findById(id).map(prestataire -> {
+            entityManager.refresh(prestataire);
+            return prestataire;
+        });
+    }
 
     @Override
     public Prestataire addPrestataire(AddPrestataireRequest request) {
-        boolean existedPrestataire = prestataireRepository.findByEmail(request.getEmail()).isPresent();
+        boolean existedPrestataire = emailExistenceIndex.mightExist(request.getEmail())
+                && prestataireRepository.existsByEmail(request.getEmail());
         if (existedPrestataire) {
             throw new ResourceAlreadyExistException("Prestataire " + request.getEmail() + " already exists");
         }
 
-        return prestataireRepository.save(createPrestataire(request));
+        Prestataire prestataire = prestataireRepository.save(createPrestataire(request));
+        emailExistenceIndex.add(prestataire.getEmail());
+        suggestionIndex.putPrestataire(prestataire.getId(), prestataire.getNomComplet());
+        eventBus.publish(new DomainEvent.ScoreChanged(prestataire.getId(), prestataire.getScore()));
+        return prestataire;
     }
     public Prestataire createPrestataire(AddPrestataireRequest request) {
         return new Prestataire(
@@ -51,6 +130,13 @@ public class PrestataireService implements IPrestataireService {
         return prestataireRepository.findAll();
     }
 
+    @Override
+    public CursorPage<PrestataireDto> getPrestataires(String cursor, Integer limit) {
+        int size = Cursors.clampLimit(limit);
+        List<PrestataireDto> rows = prestataireRepository.findDtoPage(Cursors.decodeId(cursor), Limit.of(size + 1));
+        return Cursors.page(rows, size, p -> Cursors.encodeId(p.getId()));
+    }
+
     @Override
     public Prestataire getPrestataireByEmail(String email) {
         return prestataireRepository.findByEmail(email)
@@ -63,12 +149,35 @@ public class PrestataireService implements IPrestataireService {
                 .orElseThrow(()-> new ResourceNotFoundException("Prestataire introuvable"));
     }
 
+    @Override
+    public PrestataireDto getPrestataireDtoByEmail(String email) {
+        return prestataireRepository.findDtoByEmail(email)
+                .orElseThrow(()-> new ResourceNotFoundException("Prestataire introuvable"));
+    }
+
+    @Override
+    public PrestataireDto getPrestataireDtoById(Long id) {
+        return prestataireRepository.findDtoById(id)
+                .orElseThrow(()-> new ResourceNotFoundException("Prestataire introuvable"));
+    }
+
     @Override
     public Prestataire updatePrestataire(UpdatePrestataireRequest prestataire, Long id) {
-        return prestataireRepository.findById(id)
-                .map(existingPrestataire -> updateExistingPrestataire(existingPrestataire,prestataire))
-                .map(prestataireRepository::save)
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
+        return prestataireLocks.withLock(id, () -> {
+            List<String> emails = new ArrayList<>();
+            Prestataire updated = inNewTransaction(() -> findForUpdate(id)
+                    .map(existingPrestataire -> {
+                        emails.add(existingPrestataire.getEmail());
+                        return updateExistingPrestataire(existingPrestataire, prestataire);
+                    })
+                    .map(prestataireRepository::save)
+                    .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable")));
+            // apres le commit : une connexion concurrente ne peut plus remettre l'ancien mot de passe en cache
+            emails.add(updated.getEmail());
+            emails.forEach(userDetailsService::evict);
+            suggestionIndex.putPrestataire(updated.getId(), updated.getNomComplet());
+            return updated;
+        });
     }
 
     public Prestataire updateExistingPrestataire(Prestataire existingPrestataire , UpdatePrestataireRequest request)
@@ -78,14 +187,32 @@ public class PrestataireService implements IPrestataireService {
         existingPrestataire.setPassword(passwordEncoder.encode(request.getPassword()));
         existingPrestataire.setTelephone(request.getTelephone());
         existingPrestataire.setRole(Role.PRESTATAIRE);
+        // Email et mot de passe changent : les jetons deja emis ne doivent plus etre acceptes
+        tokenRevocationService.revokeTokens(existingPrestataire);
+        emailExistenceIndex.add(request.getEmail());
         return existingPrestataire;
     }
 
     @Override
     public void deletePrestataire(Long id) {
-      prestataireRepository.findById(id)
-              .ifPresentOrElse(prestataireRepository::delete,
-                      () -> {throw new ResourceNotFoundException("Prestataire introuvable");});
+        prestataireLocks.withLock(id, () -> {
+            List<SpecialiteDto> specialites = new ArrayList<>();
+            Prestataire prestataire = inNewTransaction(() -> {
+                Prestataire existing = findForUpdate(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
+                specialites.addAll(specialiteRepository.findDtoByPrestataireId(id));
+                prestataireRepository.delete(existing);
+                tokenRevocationService.revokeDeletedUser(id);
+                return existing;
+            });
+            specialites.forEach(s -> eventBus.publish(new DomainEvent.SpecialiteRemoved(id, s.getLibelle(), true)));
+            eventBus.publish(new DomainEvent.PrestataireDeleted(id));
+            userDetailsService.evict(prestataire.getEmail());
+            suggestionIndex.removePrestataire(id);
+            geoIndex.remove(id);
+            slotIndex.evict(id);
+            availability.remove(id);
+        });
     }
 
     @Override
@@ -94,27 +221,112 @@ public class PrestataireService implements IPrestataireService {
     }
 
     @Override
-    public boolean activatePrestataire(Long id) {
-        Prestataire prestataire = prestataireRepository.findById(id)
-                .orElseThrow(()-> new ResourceNotFoundException("Prestataire introuvable"));
-
-        prestataire.setActif(true);
-        prestataireRepository.save(prestataire);
-        return true;
+    public Prestataire activatePrestataire(Long id) {
+        return prestataireLocks.withLock(id, () -> {
+            Prestataire prestataire = inNewTransaction(() -> {
+                Prestataire existing = findForUpdate(id)
+                        .orElseThrow(()-> new ResourceNotFoundException("Prestataire introuvable"));
+                existing.setActif(true);
+                return prestataireRepository.save(existing);
+            });
+            userDetailsService.evict(prestataire.getEmail());
+            refreshGeoIndex(id);
+            return prestataire;
+        });
     }
 
     @Override
-    public List<Prestataire> searchBySpecialite(String nomSpecialite) {
+    public List<PrestataireDto> searchBySpecialite(String nomSpecialite) {
         if(nomSpecialite ==null || nomSpecialite.trim().isEmpty())
         {
             throw new IllegalArgumentException("Le nom de la specialite ne doit pas etre vide ");
         }
-        return prestataireRepository.findByLibelleSpecialite(nomSpecialite);
+        if (!specialiteSearchIndex.isReady()) {
+            return prestataireRepository.findByLibelleSpecialite(nomSpecialite);
+        }
+        Set<Long> ids = specialiteSearchIndex.search(nomSpecialite);
+        return ids.isEmpty() ? List.of() : prestataireRepository.findDtoByIdIn(ids);
+    }
+
+    @Override
+    public List<PrestataireDto> findDisponibles(String specialite, LocalDateTime debut, LocalDateTime fin, Integer limit) {
+        if (specialite == null || specialite.isBlank()) {
+            throw new IllegalArgumentException("Le nom de la specialite ne doit pas etre vide ");
+        }
+        if (debut == null || fin == null || !debut.isBefore(fin)) {
+            throw new IllegalArgumentException("La fenetre doit avoir un debut anterieur a sa fin");
+        }
+        if (Duration.between(debut, fin).toDays() > 31) {
+            throw new IllegalArgumentException("La fenetre ne doit pas depasser 31 jours");
+        }
+        int k = limit == null || limit <= 0 ? 20 : Math.min(limit, 100);
+        long from = debut.atZone(availability.zone()).toInstant().toEpochMilli();
+        long to = fin.atZone(availability.zone()).toInstant().toEpochMilli();
+        if (!specialiteSearchIndex.isReady() || !availability.isReady()) {
+            List<PrestataireDto> candidats = searchBySpecialite(specialite);
+            if (candidats.isEmpty()) {
+                return candidats;
+            }
+            Set<Long> occupes = new HashSet<>(reservationRepository.findBusyPrestataireIds(
+                    candidats.stream().map(PrestataireDto::getId).toList(), new Date(from), new Date(to)));
+            return candidats.stream().filter(p -> !occupes.contains(p.getId())).limit(k).toList();
+        }
+        List<Long> candidats = new ArrayList<>(specialiteSearchIndex.search(specialite));
+        Collections.sort(candidats);
+        List<Long> libres = availability.free(candidats, from, to);
+        if (libres.isEmpty()) {
+            return List.of();
+        }
+        return prestataireRepository.findDtoByIdIn(libres.subList(0, Math.min(k, libres.size())));
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String query, Integer limit) {
+        int size = limit == null || limit <= 0 ? 10 : Math.min(limit, 50);
+        return suggestionIndex.suggest(query, size);
+    }
+
+    @Override
+    public List<PrestataireDto> findByAdresse(String ville) {
+        return prestataireRepository.findDtoByVille(ville);
     }
 
     @Override
-    public Optional<Prestataire> findByAdresse(String ville) {
-        return prestataireRepository.findByAdresse_Ville(ville);
+    public List<NearbyPrestataireDto> findNearby(double latitude, double longitude, Double radiusKm, String specialite, Integer limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordonnees invalides");
+        }
+        double radius = radiusKm == null || radiusKm <= 0 ? 10 : radiusKm;
+        int k = limit == null || limit <= 0 ? 20 : Math.min(limit, 100);
+        LongPredicate filter = id -> true;
+        if (specialite != null && !specialite.isBlank()) {
+            Set<Long> matching = specialiteSearchIndex.search(specialite);
+            filter = matching::contains;
+        }
+        List<PrestataireGeoIndex.Hit> hits = geoIndex.nearest(latitude, longitude, radius, k, filter);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PrestataireDto> byId = new HashMap<>();
+        prestataireRepository.findDtoByIdIn(hits.stream().map(PrestataireGeoIndex.Hit::prestataireId).toList())
+                .forEach(dto -> byId.put(dto.getId(), dto));
+        List<NearbyPrestataireDto> result = new ArrayList<>();
+        for (PrestataireGeoIndex.Hit hit : hits) {
+            PrestataireDto dto = byId.get(hit.prestataireId());
+            if (dto != null) {
+                result.add(new NearbyPrestataireDto(dto, hit.distanceKm()));
+            }
+        }
+        return result;
+    }
+
+    private void refreshGeoIndex(Long prestataireId) {
+        List<Object[]> rows = prestataireRepository.findActiveCoordinatesById(prestataireId);
+        if (rows.isEmpty()) {
+            geoIndex.remove(prestataireId);
+        } else {
+            geoIndex.put(prestataireId, (Double) rows.get(0)[1], (Double) rows.get(0)[2]);
+        }
     }
 
     @Override
@@ -123,12 +335,71 @@ public class PrestataireService implements IPrestataireService {
     }
 
     @Override
-    public void updateScore(ScoreUpdateRequest scoreUpdateRequest) {
-        Prestataire prestataire = prestataireRepository.findById(scoreUpdateRequest.getPrestataireId())
-                .orElseThrow(() -> new EntityNotFoundException("Prestataire introuvable avec l'id " + scoreUpdateRequest.getPrestataireId()));
+    public CursorPage<PrestataireDto> findByScoreGreaterThan(double minScore, String cursor, Integer limit) {
+        int size = Cursors.clampLimit(limit);
+        Cursors.ScoreCursor after = Cursors.decodeScore(cursor);
+        if (scoreLeaderboard.isReady()) {
+            List<Long> ids = scoreLeaderboard.page(minScore, after, size + 1).stream()
+                    .map(ScoreLeaderboard.Entry::prestataireId)
+                    .toList();
+            return Cursors.page(findDtosInOrder(ids), size, p -> Cursors.encodeScore(p.getScore(), p.getId()));
+        }
+        List<PrestataireDto> rows = after == null
+                ? prestataireRepository.findRankedByScore(minScore, Limit.of(size + 1))
+                : prestataireRepository.findRankedByScoreAfter(minScore, after.score(), after.id(), Limit.of(size + 1));
+        return Cursors.page(rows, size, p -> Cursors.encodeScore(p.getScore(), p.getId()));
+    }
 
-        prestataire.setScore(scoreUpdateRequest.getNewScore());
-        prestataireRepository.save(prestataire);
+    @Override
+    public List<PrestataireDto> getTopPrestataires(Integer limit) {
+        int size = Cursors.clampLimit(limit);
+        if (!scoreLeaderboard.isReady()) {
+            return prestataireRepository.findRankedByScore(-1, Limit.of(size));
+        }
+        return findDtosInOrder(scoreLeaderboard.top(size).stream()
+                .map(ScoreLeaderboard.Entry::prestataireId)
+                .toList());
+    }
+
+    @Override
+    public ClassementDto getClassement(Long prestataireId) {
+        int rang = scoreLeaderboard.rank(prestataireId);
+        if (rang < 0) {
+            throw new ResourceNotFoundException("Prestataire introuvable avec l'id " + prestataireId);
+        }
+        return new ClassementDto(prestataireId, scoreLeaderboard.scoreOf(prestataireId), rang, scoreLeaderboard.size());
+    }
+
+    // Hydrate les ids dans l'ordre fourni (un seul SELECT ... IN)
+    private List<PrestataireDto> findDtosInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PrestataireDto> byId = new HashMap<>();
+        prestataireRepository.findDtoByIdIn(ids).forEach(dto -> byId.put(dto.getId(), dto));
+        List<PrestataireDto> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PrestataireDto dto = byId.get(id);
+            if (dto != null) {
+                ordered.add(dto);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public Prestataire updateScore(ScoreUpdateRequest scoreUpdateRequest) {
+        return prestataireLocks.withLock(scoreUpdateRequest.getPrestataireId(), () -> {
+            Prestataire prestataire = inNewTransaction(() -> {
+                Prestataire existing = findForUpdate(scoreUpdateRequest.getPrestataireId())
+                        .orElseThrow(() -> new EntityNotFoundException("Prestataire introuvable avec l'id " + scoreUpdateRequest.getPrestataireId()));
+                prestataireRepository.updateScore(existing.getId(), scoreUpdateRequest.getNewScore());
+                existing.setScore(scoreUpdateRequest.getNewScore());
+                return existing;
+            });
+            eventBus.publish(new DomainEvent.ScoreChanged(prestataire.getId(), prestataire.getScore()));
+            return prestataire;
+        });
     }
 
 
@@ -147,15 +418,24 @@ public class PrestataireService implements IPrestataireService {
     }
 
     @Override
-    public void updateAdressePrestataire(UpdateAdressPrestRequest request) {
-            Prestataire prestataire = prestataireRepository.findById(request.getPrestataireId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
-            prestataire.setAdresse(request.getAdresse());
-            prestataireRepository.save(prestataire);
+    public Prestataire updateAdressePrestataire(UpdateAdressPrestRequest request) {
+        return prestataireLocks.withLock(request.getPrestataireId(), () -> {
+            Prestataire prestataire = inNewTransaction(() -> {
+                Prestataire existing = findForUpdate(request.getPrestataireId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
+                existing.setAdresse(request.getAdresse());
+                return prestataireRepository.save(existing);
+            });
+            refreshGeoIndex(prestataire.getId());
+            return prestataire;
+        });
     }
 
     @Override
     public Map<String, Long> countPrestatairesBySpecialite() {
+        if (specialiteCounters.isReady()) {
+            return specialiteCounters.snapshot();
+        }
         List<Object[]> results = prestataireRepository.countPrestataireBySpecialites();
         Map<String, Long> counts = new HashMap<>();
         for(Object[] result : results) {
@@ -167,122 +447,134 @@ public class PrestataireService implements IPrestataireService {
     }
 
     @Override
-    public Set<Specialite> getSpecialitesFromPrestataire(Long prestataireId) {
-        Prestataire prestataire = prestataireRepository.findById(prestataireId)
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
-        return prestataire.getSpecialites();
+    public List<SpecialiteDto> getSpecialitesFromPrestataire(Long prestataireId) {
+        List<SpecialiteDto> specialites = specialiteRepository.findDtoByPrestataireId(prestataireId);
+        requirePrestataireIfEmpty(specialites, prestataireId);
+        return specialites;
     }
 
     @Override
-    public void addSpecialiteToPrestataire(AddSpecialitePrestRequest request) {
-        Prestataire prestataire = prestataireRepository.findById(request.getPrestataireId())
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable avec l'id : " + request.getPrestataireId()));
-
-        Specialite specialite = request.getSpecialite();
-
-        // Rechercher la spécialité par libellé (en ignorant la casse, optionnel)
-        Optional<Specialite> existingSpecialite = specialiteRepository.findByLibelleIgnoreCase(specialite.getLibelle());
-
-        Specialite specialiteToAdd = existingSpecialite.orElseGet(() -> {
-            // Préserve la cohérence relationnelle
-            specialite.getPrestataires().add(prestataire);
-            return specialiteRepository.save(specialite);
+    public Prestataire addSpecialiteToPrestataire(AddSpecialitePrestRequest request) {
+        return prestataireLocks.withLock(request.getPrestataireId(), () -> {
+            Mutation mutation = inNewTransaction(() -> {
+                Prestataire prestataire = findForUpdate(request.getPrestataireId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable avec l'id : " + request.getPrestataireId()));
+
+                Specialite specialite = request.getSpecialite();
+
+                // Rechercher la spécialité par libellé (en ignorant la casse, optionnel)
+                Optional<Specialite> existingSpecialite = specialiteRepository.findByLibelleIgnoreCase(specialite.getLibelle());
+
+                Specialite specialiteToAdd = existingSpecialite.orElseGet(() -> {
+                    // Préserve la cohérence relationnelle
+                    specialite.getPrestataires().add(prestataire);
+                    return specialiteRepository.save(specialite);
+                });
+
+                boolean added = prestataire.getSpecialites().add(specialiteToAdd);
+                prestataireRepository.save(prestataire);
+                return new Mutation(prestataire, new DomainEvent.SpecialiteAdded(prestataire.getId(), specialiteToAdd.getLibelle(), added));
+            });
+            eventBus.publish(mutation.event());
+            return mutation.prestataire();
         });
-
-        prestataire.getSpecialites().add(specialiteToAdd);
-        prestataireRepository.save(prestataire);
     }
 
 
     @Override
-    public void removeSpecialiteToPrestataire(AddSpecialitePrestRequest request) {
-        Prestataire prestataire = prestataireRepository.findById(request.getPrestataireId())
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
-
-        Specialite specialite = specialiteRepository.findById(request.getSpecialite().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Specialite introuvable"));
-        prestataire.getSpecialites().remove(specialite);
-        prestataireRepository.save(prestataire);
+    public Prestataire removeSpecialiteToPrestataire(AddSpecialitePrestRequest request) {
+        return prestataireLocks.withLock(request.getPrestataireId(), () -> {
+            Mutation mutation = inNewTransaction(() -> {
+                Prestataire prestataire = findForUpdate(request.getPrestataireId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
+
+                Specialite specialite = specialiteRepository.findById(request.getSpecialite().getId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Specialite introuvable"));
+                boolean removed = prestataire.getSpecialites().remove(specialite);
+                prestataireRepository.save(prestataire);
+                return new Mutation(prestataire, new DomainEvent.SpecialiteRemoved(prestataire.getId(), specialite.getLibelle(), removed));
+            });
+            eventBus.publish(mutation.event());
+            return mutation.prestataire();
+        });
     }
 
     @Override
-    public List<master.ipld.ligueylu.model.Service> getServicesByPrestataire(Long prestataireId) {
-        Prestataire prestataire = prestataireRepository.findById(prestataireId)
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
-        return prestataire.getServices();
+    public List<ServiceDto> getServicesByPrestataire(Long prestataireId) {
+        List<ServiceDto> services = serviceRepository.findDtoByPrestataireId(prestataireId);
+        requirePrestataireIfEmpty(services, prestataireId);
+        return services;
     }
 
     @Override
     public master.ipld.ligueylu.model.Service addServiceToPrestataire(AddServicePrestRequest request) {
-        Prestataire prestataire = prestataireRepository.findById(request.getPrestataireId())
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable avec l'id : " + request.getPrestataireId()));
+        return prestataireLocks.withLock(request.getPrestataireId(), () -> inNewTransaction(() -> {
+            Prestataire prestataire = findForUpdate(request.getPrestataireId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable avec l'id : " + request.getPrestataireId()));
+
+            master.ipld.ligueylu.model.Service service = request.getService();
+            master.ipld.ligueylu.model.Service serviceToAdd;
+
+            if (service.getId() != null) {
+                serviceToAdd = serviceRepository.findById(service.getId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Service introuvable avec l'id : " + service.getId()));
+            } else {
+                service.setPrestataire(prestataire); // Lier le prestataire au service
+                serviceToAdd = serviceRepository.save(service);
+            }
+            prestataire.getServices().add(serviceToAdd);
+            prestataireRepository.save(prestataire);
 
-        master.ipld.ligueylu.model.Service service = request.getService();
-        master.ipld.ligueylu.model.Service serviceToAdd;
+            return serviceToAdd;
+        }));
+    }
 
-        if (service.getId() != null) {
-            serviceToAdd = serviceRepository.findById(service.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Service introuvable avec l'id : " + service.getId()));
-        } else {
-            service.setPrestataire(prestataire); // Lier le prestataire au service
-            serviceToAdd = serviceRepository.save(service);
-        }
-        prestataire.getServices().add(serviceToAdd);
-        prestataireRepository.save(prestataire);
 
-        return serviceToAdd;
+    @Override
+    public Prestataire removeServiceFromPrestataire(AddServicePrestRequest request) {
+        return prestataireLocks.withLock(request.getPrestataireId(), () -> inNewTransaction(() -> {
+            Prestataire prestataire = findForUpdate(request.getPrestataireId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
+            master.ipld.ligueylu.model.Service service = serviceRepository.findById(request.getService().getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Service introuvable"));
+            prestataire.getServices().remove(service);
+            return prestataireRepository.save(prestataire);
+        }));
     }
 
-
     @Override
-    public void removeServiceFromPrestataire(AddServicePrestRequest request) {
-        Prestataire prestataire = prestataireRepository.findById(request.getPrestataireId())
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
-        master.ipld.ligueylu.model.Service service = serviceRepository.findById(request.getService().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Service introuvable"));
-        prestataire.getServices().remove(service);
-        prestataireRepository.save(prestataire);
+    public List<ReservationDto> getReservationsByPrestataire(Long prestataireId) {
+        List<ReservationDto> reservations = reservationRepository.findDtoByPrestataireId(prestataireId);
+        requirePrestataireIfEmpty(reservations, prestataireId);
+        return reservations;
     }
 
     @Override
-    public List<Reservation> getReservationsByPrestataire(Long prestataireId) {
-        Prestataire prestataire = prestataireRepository.findById(prestataireId)
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
-        return prestataire.getReservations();
+    public CursorPage<ReservationDto> getReservationsByPrestataire(Long prestataireId, String cursor, Integer limit) {
+        int size = Cursors.clampLimit(limit);
+        List<ReservationDto> rows = reservationRepository.findDtoPageByPrestataireId(
+                prestataireId, Cursors.decodeId(cursor), Limit.of(size + 1));
+        if (cursor == null) {
+            requirePrestataireIfEmpty(rows, prestataireId);
+        }
+        return Cursors.page(rows, size, r -> Cursors.encodeId(r.getId()));
+    }
+
+    // Une seule requete dans le cas nominal : l'existence n'est verifiee que si la liste est vide
+    private void requirePrestataireIfEmpty(List<?> rows, Long prestataireId) {
+        if (rows.isEmpty() && !prestataireRepository.existsById(prestataireId)) {
+            throw new ResourceNotFoundException("Prestataire introuvable");
+        }
     }
 
     @Override
     public void cancelReservation(AddReservationPrestRequest request) {
-        Prestataire prestataire = prestataireRepository.findById(request.getPrestataireId())
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable"));
-        Reservation reservation = reservationRepository.findById(request.getReservation().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Reservation introuvable"));
-        prestataire.getReservations().remove(reservation);
-        prestataireRepository.save(prestataire);
+        reservationService.annuler(request.getPrestataireId(), request.getReservation().getId());
     }
 
     @Override
     public Reservation addReservationToPrestataire(AddReservationPrestRequest request) {
-        Prestataire prestataire = prestataireRepository.findById(request.getPrestataireId())
-                .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable avec l'id : " + request.getPrestataireId()));
-
-        Reservation reservation = request.getReservation();
-        Reservation reservationToAdd;
-        if (reservation.getId() != null) {
-            reservationToAdd = reservationRepository.findById(reservation.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Réservation introuvable avec l'id : " + reservation.getId()));
-        } else {
-            reservation.setPrestataire(prestataire);
-            if (reservation.getCreationDate() == null) {
-                reservation.setCreationDate(new Date());
-            }
-
-            reservationToAdd = reservationRepository.save(reservation);
-        }
-        prestataire.getReservations().add(reservationToAdd);
-        prestataireRepository.save(prestataire);
-
-        return reservationToAdd;
+        return reservationService.reserver(request.getPrestataireId(), request.getReservation());
     }
 
 }
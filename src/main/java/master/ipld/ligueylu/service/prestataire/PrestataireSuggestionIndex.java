@@ -0,0 +1,455 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.dto.SuggestionDto;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.repository.specialite.SpecialiteRepository;
+import master.ipld.ligueylu.util.TextFolding;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocompletion tolerante aux fautes sur les noms de prestataires et les libelles de specialites.
+ * Les termes (libelle complet et chacun de ses mots, apres {@link TextFolding}) sont ranges dans
+ * un trie compresse (chaque arete porte une suite de caracteres, enfants tries par premier
+ * caractere) ; un retrait detache les noeuds devenus vides et refusionne les chaines a enfant
+ * unique. La recherche collecte d'abord les termes qui prolongent exactement la saisie, puis
+ * parcourt le trie en calculant une ligne de la matrice de Levenshtein par caractere
+ * (equivalent d'un automate de Levenshtein) : la distance d'un terme est celle du plus proche
+ * de ses prefixes, et le parcours elague des que la distance minimale depasse le nombre
+ * d'erreurs autorise.
+ * <p>
+ * Seules les specialites rattachees a au moins un prestataire sont proposees : le retrait du
+ * dernier lien les efface ({@link #removeSpecialite}). Le chargement initial ignore les
+ * prestataires et les specialites modifies pendant sa lecture : leur entree courante est plus
+ * recente que la ligne lue.
+ */
+@Slf4j
+@Component
+public class PrestataireSuggestionIndex {
+    private static final int MAX_COLLECTED = 500;
+
+    private final PrestataireRepository prestataireRepository;
+    private final SpecialiteRepository specialiteRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("", 0);
+    private final Map<Long, SuggestionDto> prestataires = new HashMap<>();
+    // modifications faites pendant le chargement initial, null hors chargement ; gardes par lock
+    private Set<Long> touchedDuringWarmUp;
+    private Set<String> specialitesTouchedDuringWarmUp;
+
+    public PrestataireSuggestionIndex(PrestataireRepository prestataireRepository,
+                                      SpecialiteRepository specialiteRepository) {
+        this.prestataireRepository = prestataireRepository;
+        this.specialiteRepository = specialiteRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringWarmUp = new HashSet<>();
+            specialitesTouchedDuringWarmUp = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Object[]> names = prestataireRepository.findAllIdsAndNames();
+        List<String> libelles = specialiteRepository.findLinkedLibelles();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : names) {
+                Long id = (Long) row[0];
+                if (id != null && row[1] != null && !touchedDuringWarmUp.contains(id)) {
+                    putLocked(id, (String) row[1]);
+                }
+            }
+            for (String libelle : libelles) {
+                if (libelle != null && !specialitesTouchedDuringWarmUp.contains(TextFolding.fold(libelle))) {
+                    putSpecialiteLocked(libelle);
+                }
+            }
+            touchedDuringWarmUp = null;
+            specialitesTouchedDuringWarmUp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Index d'autocompletion charge ({} prestataires, {} specialites)", names.size(), libelles.size());
+    }
+
+    public void putPrestataire(Long id, String nomComplet) {
+        if (id == null || nomComplet == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            putLocked(id, nomComplet);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePrestataire(Long id) {
+        lock.writeLock().lock();
+        try {
+            touch(id);
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putSpecialite(String libelle) {
+        if (libelle == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            touchSpecialite(libelle);
+            putSpecialiteLocked(libelle);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Retire la specialite des suggestions, une fois qu'aucun prestataire ne la propose. */
+    public void removeSpecialite(String libelle) {
+        if (libelle == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            touchSpecialite(libelle);
+            for (String term : terms(libelle)) {
+                root.remove(term, s -> isSpecialite(s, libelle));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void touch(Long id) {
+        if (touchedDuringWarmUp != null) {
+            touchedDuringWarmUp.add(id);
+        }
+    }
+
+    private void touchSpecialite(String libelle) {
+        if (specialitesTouchedDuringWarmUp != null) {
+            specialitesTouchedDuringWarmUp.add(TextFolding.fold(libelle));
+        }
+    }
+
+    private void putLocked(Long id, String nomComplet) {
+        removeLocked(id);
+        SuggestionDto suggestion = new SuggestionDto(SuggestionDto.PRESTATAIRE, id, nomComplet);
+        prestataires.put(id, suggestion);
+        for (String term : terms(nomComplet)) {
+            root.insert(term).add(suggestion);
+        }
+    }
+
+    private void putSpecialiteLocked(String libelle) {
+        for (String term : terms(libelle)) {
+            Node node = root.insert(term);
+            boolean known = node.entries != null && node.entries.stream().anyMatch(s -> isSpecialite(s, libelle));
+            if (!known) {
+                node.add(new SuggestionDto(SuggestionDto.SPECIALITE, null, libelle));
+            }
+        }
+    }
+
+    private static boolean isSpecialite(SuggestionDto suggestion, String libelle) {
+        return suggestion.getPrestataireId() == null && suggestion.getLabel().equalsIgnoreCase(libelle);
+    }
+
+    public List<SuggestionDto> suggest(String query, int limit) {
+        String needle = String.join(" ", TextFolding.tokens(query));
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        int maxEdits = needle.length() <= 3 ? 0 : needle.length() <= 6 ? 1 : 2;
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // Prefixes exacts d'abord : le plafond de collecte ne peut pas les evincer
+            Node exact = root.findPrefix(needle);
+            if (exact != null) {
+                collect(exact, 0, matches);
+            }
+            if (maxEdits > 0) {
+                int[] firstRow = new int[needle.length() + 1];
+                for (int i = 0; i < firstRow.length; i++) {
+                    firstRow[i] = i;
+                }
+                for (int i = 0; i < root.children.length && matches.size() < MAX_COLLECTED; i++) {
+                    walk(root.children[i], needle, firstRow, Integer.MAX_VALUE, maxEdits, exact, matches);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingInt(Match::distance)
+                .thenComparingInt(Match::depth)
+                .thenComparing(m -> m.suggestion().getLabel()));
+        Set<SuggestionDto> result = new LinkedHashSet<>();
+        for (Match match : matches) {
+            result.add(match.suggestion());
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * {@code best} : plus petite distance entre la saisie et un prefixe deja parcouru du terme.
+     * Le sous-arbre de {@code exact} est ignore, ses termes ont deja ete collectes a distance 0.
+     */
+    private void walk(Node node, String needle, int[] previousRow, int best, int maxEdits,
+                      Node exact, List<Match> matches) {
+        if (node == exact) {
+            return;
+        }
+        int columns = needle.length() + 1;
+        int[] row = previousRow;
+        for (int k = 0; k < node.label.length(); k++) {
+            char c = node.label.charAt(k);
+            int[] next = new int[columns];
+            next[0] = row[0] + 1;
+            int rowMin = next[0];
+            for (int i = 1; i < columns; i++) {
+                int substitution = row[i - 1] + (needle.charAt(i - 1) == c ? 0 : 1);
+                next[i] = Math.min(substitution, Math.min(next[i - 1] + 1, row[i] + 1));
+                rowMin = Math.min(rowMin, next[i]);
+            }
+            row = next;
+            best = Math.min(best, row[columns - 1]);
+            if (best <= maxEdits && rowMin >= best) {
+                // La distance ne peut plus baisser : tout le sous-arbre prolonge la saisie a cette distance
+                collect(node, best, matches);
+                return;
+            }
+            if (rowMin > maxEdits) {
+                return;
+            }
+        }
+        if (best <= maxEdits && node.entries != null) {
+            for (SuggestionDto suggestion : node.entries) {
+                matches.add(new Match(suggestion, best, node.depth));
+            }
+        }
+        for (int i = 0; i < node.children.length && matches.size() < MAX_COLLECTED; i++) {
+            walk(node.children[i], needle, row, best, maxEdits, exact, matches);
+        }
+    }
+
+    // Parcours en largeur : les termes les plus courts (les plus proches de la saisie) d'abord
+    private void collect(Node start, int distance, List<Match> matches) {
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty() && matches.size() < MAX_COLLECTED) {
+            Node node = queue.poll();
+            if (node.entries != null) {
+                for (SuggestionDto suggestion : node.entries) {
+                    matches.add(new Match(suggestion, distance, node.depth));
+                }
+            }
+            queue.addAll(Arrays.asList(node.children));
+        }
+    }
+
+    private void removeLocked(Long id) {
+        SuggestionDto previous = prestataires.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : terms(previous.getLabel())) {
+            root.remove(term, previous::equals);
+        }
+    }
+
+    private static Set<String> terms(String label) {
+        List<String> tokens = TextFolding.tokens(label);
+        Set<String> terms = new LinkedHashSet<>(tokens);
+        if (tokens.size() > 1) {
+            terms.add(String.join(" ", tokens));
+        }
+        return terms;
+    }
+
+    private record Match(SuggestionDto suggestion, int distance, int depth) {}
+
+    /**
+     * Noeud du trie compresse : {@code label} est la suite de caracteres de l'arete qui y mene,
+     * {@code depth} la longueur du terme qui y aboutit. Hors racine, un noeud sans entree a au
+     * moins deux enfants.
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private int depth;
+        // premier caractere du label de chaque enfant, trie
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private List<SuggestionDto> entries;
+
+        Node(String label, int depth) {
+            this.label = label;
+            this.depth = depth;
+        }
+
+        /** Noeud dont le sous-arbre contient exactement les termes prefixes par {@code prefix}. */
+        Node findPrefix(String prefix) {
+            Node node = this;
+            int i = 0;
+            while (i < prefix.length()) {
+                Node child = node.child(prefix.charAt(i));
+                if (child == null) {
+                    return null;
+                }
+                int length = Math.min(child.label.length(), prefix.length() - i);
+                if (!child.label.regionMatches(0, prefix, i, length)) {
+                    return null;
+                }
+                i += length;
+                node = child;
+            }
+            return node;
+        }
+
+        Node insert(String term) {
+            Node node = this;
+            int i = 0;
+            while (i < term.length()) {
+                int index = Arrays.binarySearch(node.keys, term.charAt(i));
+                if (index < 0) {
+                    Node leaf = new Node(term.substring(i), term.length());
+                    node.insertChild(-index - 1, leaf);
+                    return leaf;
+                }
+                Node child = node.children[index];
+                int common = 1;
+                while (common < child.label.length() && i + common < term.length()
+                        && child.label.charAt(common) == term.charAt(i + common)) {
+                    common++;
+                }
+                if (common < child.label.length()) {
+                    // le terme s'arrete ou diverge au milieu de l'arete : on la coupe
+                    Node middle = new Node(child.label.substring(0, common), i + common);
+                    child.label = child.label.substring(common);
+                    middle.keys = new char[]{child.label.charAt(0)};
+                    middle.children = new Node[]{child};
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                i += common;
+                node = child;
+            }
+            return node;
+        }
+
+        /** Retire les entrees du terme qui satisfont {@code match}, puis elague le chemin. */
+        void remove(String term, Predicate<SuggestionDto> match) {
+            List<Node> path = new ArrayList<>();
+            Node node = this;
+            int i = 0;
+            while (i < term.length()) {
+                path.add(node);
+                Node child = node.child(term.charAt(i));
+                if (child == null || !term.startsWith(child.label, i)) {
+                    return;
+                }
+                i += child.label.length();
+                node = child;
+            }
+            if (node.entries == null || !node.entries.removeIf(match)) {
+                return;
+            }
+            if (node.entries.isEmpty()) {
+                node.entries = null;
+            }
+            for (int level = path.size() - 1; level >= 0 && node.entries == null; level--) {
+                Node parent = path.get(level);
+                if (node.children.length == 0) {
+                    parent.removeChild(node);
+                } else if (node.children.length == 1) {
+                    node.absorbOnlyChild();
+                    break;
+                } else {
+                    break;
+                }
+                node = parent;
+            }
+        }
+
+        void add(SuggestionDto suggestion) {
+            if (entries == null) {
+                entries = new ArrayList<>(1);
+            }
+            entries.add(suggestion);
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private void insertChild(int at, Node child) {
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = child.label.charAt(0);
+            newChildren[at] = child;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private void removeChild(Node child) {
+            int at = Arrays.binarySearch(keys, child.label.charAt(0));
+            if (children.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        // Noeud sans entree a enfant unique : fusionne avec lui, l'arete s'allonge
+        private void absorbOnlyChild() {
+            Node only = children[0];
+            label = label + only.label;
+            depth = only.depth;
+            entries = only.entries;
+            keys = only.keys;
+            children = only.children;
+        }
+    }
+}
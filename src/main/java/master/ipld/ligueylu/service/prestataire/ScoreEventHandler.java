@@ -0,0 +1,63 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import master.ipld.ligueylu.service.event.DomainEvent;
+import master.ipld.ligueylu.service.event.DomainEventHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporte les scores dans {@link ScoreLeaderboard}. Un lot est reduit au dernier score de
+ * chaque prestataire puis applique en une seule recopie ({@link ScoreLeaderboard#updateAll}).
+ * Apres un lot en echec, le classement est recharge depuis la base.
+ */
+@Component
+public class ScoreEventHandler implements DomainEventHandler {
+    private final ScoreLeaderboard scoreLeaderboard;
+
+    public ScoreEventHandler(ScoreLeaderboard scoreLeaderboard) {
+        this.scoreLeaderboard = scoreLeaderboard;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Map<Long, Double> pending = new LinkedHashMap<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.ScoreChanged changed) {
+                pending.put(changed.prestataireId(), changed.score());
+            } else if (event instanceof DomainEvent.PrestataireDeleted deleted) {
+                // les scores anterieurs du lot sont appliques avant la suppression
+                flush(pending);
+                scoreLeaderboard.remove(deleted.prestataireId());
+            }
+        }
+        flush(pending);
+    }
+
+    @Override
+    public void recover() {
+        scoreLeaderboard.rebuild();
+    }
+
+    private void flush(Map<Long, Double> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (pending.size() == 1) {
+            Map.Entry<Long, Double> only = pending.entrySet().iterator().next();
+            scoreLeaderboard.update(only.getKey(), only.getValue());
+        } else {
+            long[] ids = new long[pending.size()];
+            double[] scores = new double[pending.size()];
+            int i = 0;
+            for (Map.Entry<Long, Double> entry : pending.entrySet()) {
+                ids[i] = entry.getKey();
+                scores[i++] = entry.getValue();
+            }
+            scoreLeaderboard.updateAll(ids, scores);
+        }
+        pending.clear();
+    }
+}
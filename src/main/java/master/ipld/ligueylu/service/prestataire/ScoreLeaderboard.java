@@ -0,0 +1,361 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.util.Cursors;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classement en memoire des prestataires par {@code (score DESC, id ASC)}, stocke dans des
+ * tableaux primitifs tries. Les lectures (seuil, top-N, rang) sont des recherches
+ * dichotomiques en O(log n) sur un instantane immuable, sans verrou ; une mise a jour de
+ * score recopie les tableaux (O(n)), ce qui convient a des scores bien plus lus qu'ecrits.
+ * <p>
+ * Les mises a jour recues pendant le chargement initial sont rejouees sur le classement
+ * charge : la lecture de la base a pu les preceder.
+ */
+@Slf4j
+@Component
+public class ScoreLeaderboard {
+
+    public record Entry(long prestataireId, double score) {}
+
+    /**
+     * Deux vues des memes donnees : {@code ids/scores} dans l'ordre du classement,
+     * {@code keyIds/keyScores} triees par id pour retrouver le score courant d'un prestataire.
+     */
+    @FunctionalInterface
+    private interface IndexOrder {
+        int compare(int a, int b);
+    }
+
+    private record Snapshot(long[] ids, double[] scores, long[] keyIds, double[] keyScores) {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new double[0], new long[0], new double[0]);
+
+        int size() {
+            return ids.length;
+        }
+    }
+
+    private final PrestataireRepository prestataireRepository;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean ready;
+    // mises a jour a rejouer apres le chargement, null hors chargement ; garde par this
+    private List<Runnable> pendingDuringWarmUp;
+
+    public ScoreLeaderboard(PrestataireRepository prestataireRepository) {
+        this.prestataireRepository = prestataireRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        synchronized (this) {
+            pendingDuringWarmUp = new ArrayList<>();
+        }
+        List<Object[]> rows = prestataireRepository.findAllScores();
+        int n = rows.size();
+        long[] keyIds = new long[n];
+        double[] keyScores = new double[n];
+        for (int i = 0; i < n; i++) {
+            Object[] row = rows.get(i);
+            keyIds[i] = (Long) row[0];
+            keyScores[i] = ((Number) row[1]).doubleValue();
+        }
+        int[] order = sortedIndexes(n, (a, b) -> compare(keyScores[a], keyIds[a], keyScores[b], keyIds[b]));
+        long[] ids = new long[n];
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = keyIds[order[i]];
+            scores[i] = keyScores[order[i]];
+        }
+        synchronized (this) {
+            // les lignes arrivent triees par id : keyIds est deja ordonne
+            snapshot = new Snapshot(ids, scores, keyIds, keyScores);
+            pendingDuringWarmUp.forEach(Runnable::run);
+            log.info("Classement des scores charge ({} prestataires, {} mises a jour rejouees)", n, pendingDuringWarmUp.size());
+            pendingDuringWarmUp = null;
+            ready = true;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Recharge tout le classement depuis la base ; les lectures passent par la base en attendant. */
+    public void rebuild() {
+        ready = false;
+        warmUp();
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /** Insere le prestataire ou deplace son entree au nouveau score. */
+    public synchronized void update(long prestataireId, double score) {
+        replayAfterWarmUp(() -> applyUpdate(prestataireId, score));
+        applyUpdate(prestataireId, score);
+    }
+
+    private void applyUpdate(long prestataireId, double score) {
+        Snapshot s = snapshot;
+        int key = Arrays.binarySearch(s.keyIds(), prestataireId);
+        long[] ids;
+        double[] scores;
+        long[] keyIds;
+        double[] keyScores;
+        if (key >= 0) {
+            double previous = s.keyScores()[key];
+            if (previous == score) {
+                return;
+            }
+            int from = lowerBound(s, previous, prestataireId);
+            ids = removeAt(s.ids(), from);
+            scores = removeAt(s.scores(), from);
+            keyIds = s.keyIds();
+            keyScores = s.keyScores().clone();
+            keyScores[key] = score;
+        } else {
+            ids = s.ids();
+            scores = s.scores();
+            int at = -key - 1;
+            keyIds = insertAt(s.keyIds(), at, prestataireId);
+            keyScores = insertAt(s.keyScores(), at, score);
+        }
+        Snapshot partial = new Snapshot(ids, scores, keyIds, keyScores);
+        int to = lowerBound(partial, score, prestataireId);
+        snapshot = new Snapshot(insertAt(ids, to, prestataireId), insertAt(scores, to, score), keyIds, keyScores);
+    }
+
+    /**
+     * Applique un lot de scores (identifiants distincts) en une seule recopie, par fusion de
+     * tableaux tries : O(n + m log m) au lieu de m recopies.
+     */
+    public synchronized void updateAll(long[] prestataireIds, double[] newScores) {
+        long[] idsCopy = prestataireIds.clone();
+        double[] scoresCopy = newScores.clone();
+        replayAfterWarmUp(() -> applyUpdateAll(idsCopy, scoresCopy));
+        applyUpdateAll(prestataireIds, newScores);
+    }
+
+    private void applyUpdateAll(long[] prestataireIds, double[] newScores) {
+        int m = prestataireIds.length;
+        if (m == 0) {
+            return;
+        }
+        int[] byRank = sortedIndexes(m, (a, b) -> compare(newScores[a], prestataireIds[a], newScores[b], prestataireIds[b]));
+        int[] byId = sortedIndexes(m, (a, b) -> Long.compare(prestataireIds[a], prestataireIds[b]));
+        long[] sortedIds = new long[m];
+        for (int k = 0; k < m; k++) {
+            sortedIds[k] = prestataireIds[byId[k]];
+        }
+
+        Snapshot s = snapshot;
+        int n = s.size();
+        // classement : anciennes entrees hors lot, fusionnees avec le lot trie
+        long[] ids = new long[n + m];
+        double[] scores = new double[n + m];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if (i < n && Arrays.binarySearch(sortedIds, s.ids()[i]) >= 0) {
+                i++;
+                continue;
+            }
+            boolean takeOld = j == m || (i < n
+                    && compare(s.scores()[i], s.ids()[i], newScores[byRank[j]], prestataireIds[byRank[j]]) < 0);
+            if (takeOld) {
+                ids[size] = s.ids()[i];
+                scores[size++] = s.scores()[i++];
+            } else {
+                ids[size] = prestataireIds[byRank[j]];
+                scores[size++] = newScores[byRank[j++]];
+            }
+        }
+        // vue par id : le score du lot remplace l'ancien
+        int keyLength = s.keyIds().length;
+        long[] keyIds = new long[keyLength + m];
+        double[] keyScores = new double[keyLength + m];
+        int keySize = 0;
+        i = 0;
+        j = 0;
+        while (i < keyLength || j < m) {
+            long oldId = i < keyLength ? s.keyIds()[i] : Long.MAX_VALUE;
+            long newId = j < m ? sortedIds[j] : Long.MAX_VALUE;
+            if (j < m && newId <= oldId) {
+                keyIds[keySize] = newId;
+                keyScores[keySize++] = newScores[byId[j++]];
+                if (newId == oldId) {
+                    i++;
+                }
+            } else {
+                keyIds[keySize] = oldId;
+                keyScores[keySize++] = s.keyScores()[i++];
+            }
+        }
+        snapshot = new Snapshot(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size),
+                Arrays.copyOf(keyIds, keySize), Arrays.copyOf(keyScores, keySize));
+    }
+
+    public synchronized void remove(long prestataireId) {
+        replayAfterWarmUp(() -> applyRemove(prestataireId));
+        applyRemove(prestataireId);
+    }
+
+    private void applyRemove(long prestataireId) {
+        Snapshot s = snapshot;
+        int key = Arrays.binarySearch(s.keyIds(), prestataireId);
+        if (key < 0) {
+            return;
+        }
+        int at = lowerBound(s, s.keyScores()[key], prestataireId);
+        snapshot = new Snapshot(removeAt(s.ids(), at), removeAt(s.scores(), at),
+                removeAt(s.keyIds(), key), removeAt(s.keyScores(), key));
+    }
+
+    /** Nombre de prestataires dont le score est strictement superieur a {@code minScore}. */
+    public int countAbove(double minScore) {
+        return lowerBound(snapshot, minScore, Long.MIN_VALUE);
+    }
+
+    /**
+     * Page du classement restreinte aux scores {@code > minScore}, commencant juste apres
+     * {@code after} (ou au debut si {@code null}).
+     */
+    public List<Entry> page(double minScore, Cursors.ScoreCursor after, int limit) {
+        Snapshot s = snapshot;
+        int end = lowerBound(s, minScore, Long.MIN_VALUE);
+        int start = after == null ? 0 : upperBound(s, after.score(), after.id());
+        int stop = Math.min(end, start + Math.max(limit, 0));
+        List<Entry> entries = new ArrayList<>(Math.max(stop - start, 0));
+        for (int i = start; i < stop; i++) {
+            entries.add(new Entry(s.ids()[i], s.scores()[i]));
+        }
+        return entries;
+    }
+
+    public List<Entry> top(int n) {
+        return page(Double.NEGATIVE_INFINITY, null, n);
+    }
+
+    /** Rang (a partir de 1) du prestataire, ou -1 s'il n'est pas classe. */
+    public int rank(long prestataireId) {
+        Snapshot s = snapshot;
+        int key = Arrays.binarySearch(s.keyIds(), prestataireId);
+        return key < 0 ? -1 : lowerBound(s, s.keyScores()[key], prestataireId) + 1;
+    }
+
+    public Double scoreOf(long prestataireId) {
+        Snapshot s = snapshot;
+        int key = Arrays.binarySearch(s.keyIds(), prestataireId);
+        return key < 0 ? null : s.keyScores()[key];
+    }
+
+    private void replayAfterWarmUp(Runnable mutation) {
+        if (pendingDuringWarmUp != null) {
+            pendingDuringWarmUp.add(mutation);
+        }
+    }
+
+    /** Permutation des indices {@code [0, n)} triee selon {@code order} (tri fusion stable, sans boxing). */
+    private static int[] sortedIndexes(int n, IndexOrder order) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        int[] buffer = new int[n];
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = 0; lo < n - width; lo += width << 1) {
+                int mid = lo + width;
+                int hi = Math.min(lo + (width << 1), n);
+                System.arraycopy(indexes, lo, buffer, lo, hi - lo);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    indexes[k++] = order.compare(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+                }
+                while (i < mid) {
+                    indexes[k++] = buffer[i++];
+                }
+                while (j < hi) {
+                    indexes[k++] = buffer[j++];
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private static int compare(double scoreA, long idA, double scoreB, long idB) {
+        int byScore = Double.compare(scoreB, scoreA);
+        return byScore != 0 ? byScore : Long.compare(idA, idB);
+    }
+
+    /** Premiere position dont la cle n'est pas avant {@code (score, id)}. */
+    private static int lowerBound(Snapshot s, double score, long id) {
+        int lo = 0;
+        int hi = s.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(s.scores()[mid], s.ids()[mid], score, id) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Premiere position dont la cle est strictement apres {@code (score, id)}. */
+    private static int upperBound(Snapshot s, double score, long id) {
+        int lo = 0;
+        int hi = s.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(s.scores()[mid], s.ids()[mid], score, id) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long[] insertAt(long[] source, int at, long value) {
+        long[] target = new long[source.length + 1];
+        System.arraycopy(source, 0, target, 0, at);
+        target[at] = value;
+        System.arraycopy(source, at, target, at + 1, source.length - at);
+        return target;
+    }
+
+    private static double[] insertAt(double[] source, int at, double value) {
+        double[] target = new double[source.length + 1];
+        System.arraycopy(source, 0, target, 0, at);
+        target[at] = value;
+        System.arraycopy(source, at, target, at + 1, source.length - at);
+        return target;
+    }
+
+    private static long[] removeAt(long[] source, int at) {
+        long[] target = new long[source.length - 1];
+        System.arraycopy(source, 0, target, 0, at);
+        System.arraycopy(source, at + 1, target, at, source.length - at - 1);
+        return target;
+    }
+
+    private static double[] removeAt(double[] source, int at) {
+        double[] target = new double[source.length - 1];
+        System.arraycopy(source, 0, target, 0, at);
+        System.arraycopy(source, at + 1, target, at, source.length - at - 1);
+        return target;
+    }
+}
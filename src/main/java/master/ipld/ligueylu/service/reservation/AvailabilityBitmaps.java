@@ -0,0 +1,210 @@
+package master.ipld.ligueylu.service.reservation;
+
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.reservation.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Disponibilites des prestataires, hors graphe d'entites : pour chaque prestataire et chaque
+ * jour occupe, un bitmap de 96 creneaux de 15 minutes (deux {@code long}). Chercher qui est
+ * libre sur une fenetre revient a construire le masque de la fenetre, puis a tester
+ * {@code occupe & masque == 0} pour chaque candidat, sans lire la base.
+ * <p>
+ * Un creneau est occupe des qu'une reservation le touche, meme partiellement : l'index est
+ * conservateur, le moteur de reservation reste seul juge des chevauchements. Les bitmaps sont
+ * tenus a jour par {@link ReservationService} ; un job periodique les reconstruit depuis la
+ * base pour integrer les reservations faites par les autres instances. Les prestataires
+ * modifies pendant une reconstruction gardent leurs bitmaps courants lors du remplacement :
+ * la lecture de la base a pu preceder leur modification.
+ */
+@Slf4j
+@Component
+public class AvailabilityBitmaps {
+    public static final int SLOT_MINUTES = 15;
+
+    private final ReservationRepository reservationRepository;
+    private final ZoneId zone;
+    // prestataire -> (jour epoch -> bitmap des creneaux occupes), bitmaps jamais modifies en place
+    private volatile Map<Long, Map<Long, long[]>> calendars = new ConcurrentHashMap<>();
+    // prestataires modifies depuis le debut de la reconstruction en cours, null hors reconstruction
+    private volatile Set<Long> touched;
+    // partage par les mises a jour, exclusif pour le remplacement de la table
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public AvailabilityBitmaps(ReservationRepository reservationRepository,
+                               @Value("${disponibilite.zone:Africa/Dakar}") String zone) {
+        this.reservationRepository = reservationRepository;
+        this.zone = ZoneId.of(zone);
+    }
+
+    @FunctionalInterface
+    private interface SlotConsumer {
+        void accept(long day, int slot, long slotStart, long slotEnd);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+        ready = true;
+    }
+
+    /** Reconstruit tous les bitmaps a partir des reservations a venir ; les jours passes disparaissent. */
+    @Scheduled(fixedDelayString = "${disponibilite.reconcile-interval:PT5M}",
+            initialDelayString = "${disponibilite.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        touched = ConcurrentHashMap.newKeySet();
+        List<Object[]> rows = reservationRepository.findAllUpcomingSlots(new Date());
+        Map<Long, Map<Long, long[]>> rebuilt = new ConcurrentHashMap<>();
+        for (Object[] row : rows) {
+            Date debut = (Date) row[1];
+            Date fin = (Date) row[2];
+            if (debut == null || fin == null) {
+                continue;
+            }
+            Map<Long, long[]> calendar = rebuilt.computeIfAbsent((Long) row[0], id -> new ConcurrentHashMap<>());
+            forEachSlot(debut.getTime(), fin.getTime(), (day, slot, slotStart, slotEnd) ->
+                    set(calendar.computeIfAbsent(day, d -> new long[2]), slot));
+        }
+        swapLock.writeLock().lock();
+        try {
+            Map<Long, Map<Long, long[]>> current = calendars;
+            for (Long prestataireId : touched) {
+                Map<Long, long[]> calendar = current.get(prestataireId);
+                if (calendar == null) {
+                    rebuilt.remove(prestataireId);
+                } else {
+                    rebuilt.put(prestataireId, calendar);
+                }
+            }
+            calendars = rebuilt;
+            touched = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("Bitmaps de disponibilite reconstruits ({} prestataires, {} reservations)", rebuilt.size(), rows.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * Recalcule les creneaux touches par {@code [start, end)} d'apres l'agenda du prestataire.
+     * Sert a l'ajout comme a l'annulation : un creneau partage avec une autre reservation reste occupe.
+     * L'appelant detient le verrou du prestataire.
+     */
+    public void refresh(Long prestataireId, long start, long end, ReservationSlotIndex.Agenda agenda) {
+        update(prestataireId, () -> {
+            Map<Long, long[]> calendar = calendars.computeIfAbsent(prestataireId, id -> new ConcurrentHashMap<>());
+            forEachSlot(start, end, (day, slot, slotStart, slotEnd) -> {
+                boolean busy = agenda.overlaps(slotStart, slotEnd);
+                calendar.compute(day, (d, bits) -> with(bits, slot, busy));
+            });
+        });
+    }
+
+    /** Remplace les bitmaps du prestataire par le contenu de son agenda (apres rechargement). */
+    public void load(Long prestataireId, ReservationSlotIndex.Agenda agenda) {
+        Map<Long, long[]> calendar = new ConcurrentHashMap<>();
+        agenda.forEach((start, end, reservationId) -> forEachSlot(start, end, (day, slot, slotStart, slotEnd) ->
+                set(calendar.computeIfAbsent(day, d -> new long[2]), slot)));
+        update(prestataireId, () -> calendars.put(prestataireId, calendar));
+    }
+
+    public void remove(Long prestataireId) {
+        update(prestataireId, () -> calendars.remove(prestataireId));
+    }
+
+    private void update(Long prestataireId, Runnable mutation) {
+        swapLock.readLock().lock();
+        try {
+            mutation.run();
+            Set<Long> rebuilding = touched;
+            if (rebuilding != null) {
+                rebuilding.add(prestataireId);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /** Candidats n'ayant aucun creneau occupe dans {@code [start, end)}, dans l'ordre de {@code candidates}. */
+    public List<Long> free(Collection<Long> candidates, long start, long end) {
+        Map<Long, long[]> window = new HashMap<>();
+        forEachSlot(start, end, (day, slot, slotStart, slotEnd) -> set(window.computeIfAbsent(day, d -> new long[2]), slot));
+        Map<Long, Map<Long, long[]>> current = calendars;
+        List<Long> free = new ArrayList<>();
+        for (Long candidate : candidates) {
+            Map<Long, long[]> calendar = current.get(candidate);
+            if (calendar == null || !intersects(calendar, window)) {
+                free.add(candidate);
+            }
+        }
+        return free;
+    }
+
+    private static boolean intersects(Map<Long, long[]> calendar, Map<Long, long[]> window) {
+        for (Map.Entry<Long, long[]> entry : window.entrySet()) {
+            long[] bits = calendar.get(entry.getKey());
+            long[] mask = entry.getValue();
+            if (bits != null && ((bits[0] & mask[0]) | (bits[1] & mask[1])) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Parcourt les creneaux de 15 minutes (heure locale de {@link #zone}) qui touchent {@code [start, end)}. */
+    private void forEachSlot(long start, long end, SlotConsumer consumer) {
+        ZonedDateTime cursor = Instant.ofEpochMilli(start).atZone(zone).truncatedTo(ChronoUnit.MINUTES);
+        cursor = cursor.withMinute(cursor.getMinute() / SLOT_MINUTES * SLOT_MINUTES);
+        long slotStart = cursor.toInstant().toEpochMilli();
+        while (slotStart < end) {
+            ZonedDateTime next = cursor.plusMinutes(SLOT_MINUTES);
+            long slotEnd = next.toInstant().toEpochMilli();
+            int slot = (cursor.getHour() * 60 + cursor.getMinute()) / SLOT_MINUTES;
+            consumer.accept(cursor.toLocalDate().toEpochDay(), slot, slotStart, slotEnd);
+            cursor = next;
+            slotStart = slotEnd;
+        }
+    }
+
+    private static void set(long[] bits, int slot) {
+        bits[slot >>> 6] |= 1L << (slot & 63);
+    }
+
+    // Copie modifiee du bitmap ; null (jour retire) quand plus aucun creneau n'est occupe
+    private static long[] with(long[] bits, int slot, boolean busy) {
+        long[] copy = bits == null ? new long[2] : bits.clone();
+        if (busy) {
+            set(copy, slot);
+        } else {
+            copy[slot >>> 6] &= ~(1L << (slot & 63));
+        }
+        return (copy[0] | copy[1]) == 0 ? null : copy;
+    }
+}
@@ -1,4 +1,8 @@
 package master.ipld.ligueylu.service.reservation;
 
+import master.ipld.ligueylu.model.Reservation;
+
 public interface IReservationService {
+    Reservation reserver(Long prestataireId, Reservation demande);
+    void annuler(Long prestataireId, Long reservationId);
 }
@@ -0,0 +1,44 @@
+package master.ipld.ligueylu.service.reservation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import master.ipld.ligueylu.service.event.DomainEvent;
+import master.ipld.ligueylu.service.event.DomainEventHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Compte les reservations creees et annulees, un increment par lot et par type. */
+@Component
+public class ReservationEventHandler implements DomainEventHandler {
+    private final Counter created;
+    private final Counter cancelled;
+
+    public ReservationEventHandler(MeterRegistry meterRegistry) {
+        this.created = Counter.builder("reservations.created")
+                .description("Reservations validees")
+                .register(meterRegistry);
+        this.cancelled = Counter.builder("reservations.cancelled")
+                .description("Reservations annulees")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        int creees = 0;
+        int annulees = 0;
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.ReservationCreated) {
+                creees++;
+            } else if (event instanceof DomainEvent.ReservationCancelled) {
+                annulees++;
+            }
+        }
+        if (creees > 0) {
+            created.increment(creees);
+        }
+        if (annulees > 0) {
+            cancelled.increment(annulees);
+        }
+    }
+}
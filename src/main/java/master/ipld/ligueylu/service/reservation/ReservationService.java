@@ -1,4 +1,213 @@
 package master.ipld.ligueylu.service.reservation;
 
-public class ReservationService {
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.exception.ReservationConflictException;
+import master.ipld.ligueylu.exception.ResourceNotFoundException;
+import master.ipld.ligueylu.model.PlanningPrestataire;
+import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.model.Reservation;
+import master.ipld.ligueylu.model.enums.Status;
+import master.ipld.ligueylu.repository.planning.PlanningPrestataireRepository;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.repository.reservation.ReservationRepository;
+import master.ipld.ligueylu.service.event.DomainEvent;
+import master.ipld.ligueylu.service.event.DomainEventBus;
+import master.ipld.ligueylu.service.lock.PrestataireLocks;
+import master.ipld.ligueylu.service.notification.INotificationService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Moteur de reservation par creneaux.
+ * <p>
+ * Le chevauchement est teste sur l'agenda en memoire du prestataire ({@link ReservationSlotIndex}),
+ * sous le verrou du prestataire ({@link PrestataireLocks}) : les reservations d'un meme prestataire
+ * sont serialisees dans l'instance, celles de prestataires differents avancent en parallele. Entre instances, chaque
+ * reservation incremente la version de {@link PlanningPrestataire} (verrou optimiste) : si une
+ * autre instance a reserve entre-temps, la validation echoue, l'agenda est recharge et la
+ * tentative rejouee. Un double reservation ne peut donc jamais etre validee.
+ */
+@Slf4j
+@Service
+public class ReservationService implements IReservationService {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ReservationRepository reservationRepository;
+    private final PrestataireRepository prestataireRepository;
+    private final PlanningPrestataireRepository planningRepository;
+    private final ReservationSlotIndex slotIndex;
+    private final AvailabilityBitmaps availability;
+    private final PrestataireLocks prestataireLocks;
+    private final INotificationService notificationService;
+    private final DomainEventBus eventBus;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ReservationService(ReservationRepository reservationRepository,
+                              PrestataireRepository prestataireRepository,
+                              PlanningPrestataireRepository planningRepository,
+                              ReservationSlotIndex slotIndex,
+                              AvailabilityBitmaps availability,
+                              PrestataireLocks prestataireLocks,
+                              INotificationService notificationService,
+                              DomainEventBus eventBus,
+                              PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.prestataireRepository = prestataireRepository;
+        this.planningRepository = planningRepository;
+        this.slotIndex = slotIndex;
+        this.availability = availability;
+        this.prestataireLocks = prestataireLocks;
+        this.notificationService = notificationService;
+        this.eventBus = eventBus;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private record Result<T>(T value, PlanningPrestataire planning) {}
+
+    @Override
+    public Reservation reserver(Long prestataireId, Reservation demande) {
+        if (demande.getDebut() == null || demande.getFin() == null) {
+            throw new IllegalArgumentException("Le debut et la fin du creneau sont obligatoires");
+        }
+        long start = demande.getDebut().getTime();
+        long end = demande.getFin().getTime();
+        if (start >= end) {
+            throw new IllegalArgumentException("Le debut du creneau doit preceder sa fin");
+        }
+        if (start < System.currentTimeMillis()) {
+            throw new IllegalArgumentException("Le creneau doit etre dans le futur");
+        }
+        Reservation reservation = withAgenda(prestataireId, agenda -> {
+            Prestataire prestataire = prestataireRepository.findById(prestataireId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Prestataire introuvable avec l'id : " + prestataireId));
+            PlanningPrestataire planning = planning(prestataireId, agenda);
+            if (agenda.overlaps(start, end)) {
+                throw new ReservationConflictException("Ce creneau chevauche une reservation existante du prestataire");
+            }
+            Reservation toSave = new Reservation();
+            toSave.setLibelle(demande.getLibelle());
+            toSave.setTypeService(demande.getTypeService());
+            toSave.setDescription(demande.getDescription());
+            toSave.setStatus(Status.EN_ATTENTE);
+            toSave.setCreationDate(new Date());
+            toSave.setDebut(demande.getDebut());
+            toSave.setFin(demande.getFin());
+            toSave.setPrestataire(prestataire);
+            entityManager.persist(toSave);
+            notifier(toSave, "RESERVATION_CREEE");
+            return new Result<>(toSave, touch(planning));
+        }, (agenda, saved) -> {
+            agenda.add(start, end, saved.getId());
+            availability.refresh(prestataireId, start, end, agenda);
+            eventBus.publish(new DomainEvent.ReservationCreated(saved.getId(), prestataireId, saved.getDebut(), saved.getFin()));
+        });
+        log.debug("Reservation {} du prestataire {} validee", reservation.getId(), prestataireId);
+        return reservation;
+    }
+
+    @Override
+    public void annuler(Long prestataireId, Long reservationId) {
+        withAgenda(prestataireId, agenda -> {
+            Reservation reservation = reservationRepository.findById(reservationId)
+                    .filter(r -> r.getPrestataire() != null && prestataireId.equals(r.getPrestataire().getId()))
+                    .orElseThrow(() -> new ResourceNotFoundException("Reservation introuvable pour ce prestataire"));
+            PlanningPrestataire planning = planning(prestataireId, agenda);
+            reservation.setStatus(Status.ANNULE);
+            notifier(reservation, "RESERVATION_ANNULEE");
+            return new Result<>(reservation, touch(planning));
+        }, (agenda, cancelled) -> {
+            if (cancelled.getDebut() != null && cancelled.getFin() != null) {
+                agenda.remove(cancelled.getDebut().getTime(), cancelled.getId());
+                availability.refresh(prestataireId, cancelled.getDebut().getTime(), cancelled.getFin().getTime(), agenda);
+            }
+            eventBus.publish(new DomainEvent.ReservationCancelled(cancelled.getId(), prestataireId));
+        });
+    }
+
+    @FunctionalInterface
+    private interface AfterCommit<T> {
+        void apply(ReservationSlotIndex.Agenda agenda, T value);
+    }
+
+    /**
+     * Execute {@code work} dans une transaction, sous le verrou du prestataire, puis reporte le
+     * resultat dans l'agenda. Rejoue la tentative si une autre instance a modifie l'agenda.
+     */
+    private <T> T withAgenda(Long prestataireId, Function<ReservationSlotIndex.Agenda, Result<T>> work, AfterCommit<T> afterCommit) {
+        return prestataireLocks.withLock(prestataireId, () -> {
+            ReservationSlotIndex.Agenda agenda = slotIndex.agenda(prestataireId);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    Result<T> result = transactionTemplate.execute(status -> work.apply(agenda));
+                    afterCommit.apply(agenda, result.value());
+                    // version relue apres le commit : le flush de validation l'a incrementee
+                    agenda.setVersion(result.planning().getVersion());
+                    return result.value();
+                } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                    agenda.invalidate();
+                    if (attempt == MAX_ATTEMPTS) {
+                        throw new ReservationConflictException("L'agenda du prestataire a ete modifie simultanement, veuillez reessayer");
+                    }
+                }
+            }
+        });
+    }
+
+    /** Ligne de version de l'agenda ; recharge l'agenda en memoire s'il ne reflete pas cette version. */
+    private PlanningPrestataire planning(Long prestataireId, ReservationSlotIndex.Agenda agenda) {
+        PlanningPrestataire planning = planningRepository.findById(prestataireId).orElse(null);
+        if (planning == null) {
+            planning = new PlanningPrestataire(prestataireId, 0, new Date());
+            entityManager.persist(planning);
+        }
+        if (planning.getVersion() != agenda.version()) {
+            agenda.reset(planning.getVersion());
+            Date now = new Date();
+            for (Object[] slot : reservationRepository.findUpcomingSlots(prestataireId, now)) {
+                Date debut = (Date) slot[1];
+                Date fin = (Date) slot[2];
+                if (debut != null && fin != null) {
+                    agenda.add(debut.getTime(), fin.getTime(), (Long) slot[0]);
+                }
+            }
+            availability.load(prestataireId, agenda);
+        } else {
+            agenda.prune(System.currentTimeMillis());
+        }
+        return planning;
+    }
+
+    // Ecrite dans la transaction de la reservation : validee ou annulee avec elle
+    private void notifier(Reservation reservation, String type) {
+        Map<String, Object> contenu = new HashMap<>();
+        contenu.put("reservationId", reservation.getId());
+        contenu.put("libelle", reservation.getLibelle());
+        contenu.put("status", reservation.getStatus());
+        contenu.put("debut", reservation.getDebut());
+        contenu.put("fin", reservation.getFin());
+        notificationService.publier("reservation:" + reservation.getId() + ":" + reservation.getStatus(), type,
+                "RESERVATION", reservation.getId(), reservation.getPrestataire().getId(), contenu);
+    }
+
+    /**
+     * Marque l'agenda modifie : au commit, {@code UPDATE ... SET version = v + 1 WHERE version = v}
+     * echoue si une autre instance l'a modifie depuis la lecture (ou l'INSERT echoue s'il vient d'etre cree).
+     */
+    private PlanningPrestataire touch(PlanningPrestataire planning) {
+        planning.setDerniereModification(new Date());
+        return planning;
+    }
 }
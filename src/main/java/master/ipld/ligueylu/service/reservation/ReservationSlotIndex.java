@@ -0,0 +1,93 @@
+package master.ipld.ligueylu.service.reservation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index en memoire des creneaux reserves, un agenda par prestataire. Les creneaux d'un agenda
+ * ne se chevauchent jamais : ils sont ranges par debut dans un arbre, et un test de
+ * chevauchement ne regarde que le creneau precedent et le suivant, en O(log n).
+ * <p>
+ * Chaque agenda retient la version de {@code PlanningPrestataire} qu'il reflete ; un ecart avec
+ * la base (reservation faite par une autre instance) impose de le recharger.
+ */
+@Component
+public class ReservationSlotIndex {
+
+    /** Creneaux d'un prestataire. Les appelants detiennent le verrou du prestataire. */
+    public static final class Agenda {
+        // debut -> {fin, reservationId}
+        private final TreeMap<Long, long[]> slots = new TreeMap<>();
+        private long version = -1;
+
+        public long version() {
+            return version;
+        }
+
+        public boolean overlaps(long start, long end) {
+            Map.Entry<Long, long[]> before = slots.floorEntry(start);
+            if (before != null && before.getValue()[0] > start) {
+                return true;
+            }
+            Long after = slots.ceilingKey(start);
+            return after != null && after < end;
+        }
+
+        public void add(long start, long end, long reservationId) {
+            slots.put(start, new long[]{end, reservationId});
+        }
+
+        public void remove(long start, long reservationId) {
+            long[] slot = slots.get(start);
+            if (slot != null && slot[1] == reservationId) {
+                slots.remove(start);
+            }
+        }
+
+        /** Oublie les creneaux termines avant {@code now}. */
+        public void prune(long now) {
+            while (!slots.isEmpty() && slots.firstEntry().getValue()[0] <= now) {
+                slots.pollFirstEntry();
+            }
+        }
+
+        public void reset(long version) {
+            slots.clear();
+            this.version = version;
+        }
+
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
+        public void invalidate() {
+            version = -1;
+        }
+
+        public int size() {
+            return slots.size();
+        }
+
+        public void forEach(SlotVisitor visitor) {
+            slots.forEach((start, slot) -> visitor.visit(start, slot[0], slot[1]));
+        }
+    }
+
+    @FunctionalInterface
+    public interface SlotVisitor {
+        void visit(long start, long end, long reservationId);
+    }
+
+    private final Map<Long, Agenda> agendas = new ConcurrentHashMap<>();
+
+    public Agenda agenda(Long prestataireId) {
+        return agendas.computeIfAbsent(prestataireId, id -> new Agenda());
+    }
+
+    public void evict(Long prestataireId) {
+        agendas.remove(prestataireId);
+    }
+}
@@ -0,0 +1,15 @@
+package master.ipld.ligueylu.service.security;
+
+import master.ipld.ligueylu.model.enums.Role;
+
+import java.security.Principal;
+
+/**
+ * Principal reconstruit a partir des claims du JWT, sans acces a la base.
+ */
+public record AuthenticatedUser(Long id, String email, Role role) implements Principal {
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,64 +1,176 @@
 package master.ipld.ligueylu.service.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
+import master.ipld.ligueylu.dto.UtilisateurCredentials;
+import master.ipld.ligueylu.model.enums.Role;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 @Component
 public class JwtService {
-    static final long EXPIRATION_TIME = 86400000;
     static final String PREFIX = "Bearer";
-    static final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+    static final String CLAIM_TYPE = "typ";
+    static final String TYPE_ACCESS = "access";
+    static final String TYPE_REFRESH = "refresh";
 
-    public String getToken(String username) {
+    private final SigningKeyRing signingKeyRing;
+    // Le parser est immuable et thread-safe : on le construit une seule fois
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final RevokedTokenRegistry revokedTokenRegistry;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public JwtService(SigningKeyRing signingKeyRing,
+                      VerifiedTokenCache verifiedTokenCache,
+                      TokenRevocationService tokenRevocationService,
+                      RevokedTokenRegistry revokedTokenRegistry,
+                      @Value("${jwt.access-token.ttl:PT15M}") Duration accessTokenTtl,
+                      @Value("${jwt.refresh-token.ttl:P30D}") Duration refreshTokenTtl) {
+        this.signingKeyRing = signingKeyRing;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(signingKeyRing)
+                .build();
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.revokedTokenRegistry = revokedTokenRegistry;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    public String getToken(UtilisateurCredentials user) {
+        return buildToken(user, TYPE_ACCESS, accessTokenTtl);
+    }
+
+    public String getRefreshToken(UtilisateurCredentials user) {
+        return buildToken(user, TYPE_REFRESH, refreshTokenTtl);
+    }
+
+    private String buildToken(UtilisateurCredentials user, String type, Duration ttl) {
         return Jwts.builder()
-                .setSubject(username)
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(key)
+                .setHeaderParam(JwsHeader.KEY_ID, signingKeyRing.currentKid())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
+                .claim(CLAIM_TYPE, type)
+                .setExpiration(new Date(System.currentTimeMillis() + ttl.toMillis()))
+                .signWith(signingKeyRing.currentKey())
                 .compact();
     }
 
     public String getAuthUser(HttpServletRequest request) {
         String token = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (token != null) {
-            String user = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token.replace(PREFIX, ""))
-                    .getBody()
-                    .getSubject();
-            if (user != null)
-                return user;
+            Claims claims = validateToken(token.replace(PREFIX, "").trim());
+            if (claims != null && claims.getSubject() != null)
+                return claims.getSubject();
         }
         return null;
     }
+
+    /**
+     * Verifie le jeton une seule fois (signature + expiration) et renvoie ses claims,
+     * ou {@code null} si le jeton est invalide. Les jetons deja verifies sont servis
+     * depuis le cache sans nouvelle verification HMAC.
+     */
+    public Claims validateToken(String token) {
+        Claims cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return isTokenExpired(cached) ? null : cached;
+        }
+        try {
+            Claims claims = extractAllClaims(token);
+            verifiedTokenCache.put(token, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reconstruit l'utilisateur authentifie a partir des claims, sans acces a la base.
+     * Renvoie {@code null} si les claims sont incomplets ou si le jeton a ete revoque.
+     */
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        if (!TYPE_ACCESS.equals(claims.get(CLAIM_TYPE, String.class)) || isRevoked(claims)) {
+            return null;
+        }
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        if (claims.getSubject() == null || userId == null || role == null || tokenVersion == null) {
+            return null;
+        }
+        if (tokenRevocationService.isRevoked(userId.longValue(), tokenVersion.intValue())) {
+            return null;
+        }
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), Role.valueOf(role));
+    }
+
+    /**
+     * Verifie un refresh token : signature, expiration, type et absence de revocation.
+     */
+    public Claims validateRefreshToken(String token) {
+        Claims claims = validateToken(token);
+        if (claims == null || !TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class)) || isRevoked(claims)) {
+            return null;
+        }
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || tokenVersion == null
+                || tokenRevocationService.isRevoked(userId.longValue(), tokenVersion.intValue())) {
+            return null;
+        }
+        return claims;
+    }
+
+    /** Identifiant de l'utilisateur porte par des claims deja valides. */
+    public Long extractUserId(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        return userId == null ? null : userId.longValue();
+    }
+
+    /** Revoque le jeton ; {@code false} s'il l'etait deja (voir {@link RevokedTokenRegistry#revoke}). */
+    public boolean revoke(Claims claims) {
+        return revokedTokenRegistry.revoke(claims.getId(), claims.getExpiration().getTime());
+    }
+
+    private boolean isRevoked(Claims claims) {
+        return revokedTokenRegistry.isRevoked(claims.getId());
+    }
+
     public String extractUsername(String token) {
         return extractAllClaims(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        Claims claims = validateToken(token);
+        return claims != null && claims.getSubject().equals(userDetails.getUsername());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 }
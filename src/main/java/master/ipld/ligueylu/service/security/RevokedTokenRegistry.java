@@ -0,0 +1,133 @@
+package master.ipld.ligueylu.service.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.revokedtoken.RevokedTokenRepository;
+import master.ipld.ligueylu.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifiants de jetons ({@code jti}) revoques avant leur expiration.
+ * <p>
+ * La table {@code revoked_token} fait foi : une revocation y est inseree, ce qui la rend
+ * atomique entre requetes et entre instances (un seul INSERT reussit par {@code jti}), et les
+ * revocations survivent a un redemarrage. Les lectures restent en memoire : le filtre de Bloom
+ * repond en O(1) pour l'immense majorite des jetons non revoques, seuls ses "peut-etre"
+ * consultent la map exacte. La memoire est chargee au demarrage puis completee toutes les
+ * {@code jwt.revocation.sync-interval} avec les revocations faites par les autres instances :
+ * un jeton revoque ailleurs (deconnexion) y reste accepte au plus cet intervalle. Une file
+ * triee par expiration purge les entrees devenues inutiles, le filtre est alors reconstruit.
+ */
+@Slf4j
+@Component
+public class RevokedTokenRegistry {
+    private record Revocation(String jti, long expiresAt) {}
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedRevocations;
+    private final long syncOverlapMs;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final PriorityQueue<Revocation> expiryQueue =
+            new PriorityQueue<>((a, b) -> Long.compare(a.expiresAt(), b.expiresAt()));
+    private volatile BloomFilter filter;
+    private volatile long lastSync;
+
+    public RevokedTokenRegistry(RevokedTokenRepository revokedTokenRepository,
+                                @Value("${jwt.revocation.expected-size:100000}") long expectedRevocations,
+                                @Value("${jwt.revocation.sync-interval:PT10S}") Duration syncInterval) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        // marge pour les transactions validees apres le passage precedent mais datees d'avant
+        this.syncOverlapMs = syncInterval.toMillis();
+        this.filter = new BloomFilter(expectedRevocations, 0.001);
+    }
+
+    @PostConstruct
+    void load() {
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = revokedTokenRepository.findActive(new Date(now));
+        remember(rows);
+        lastSync = now;
+        log.info("Revocations de jetons chargees ({})", rows.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * Revoque le jeton. Renvoie {@code false} s'il l'etait deja, y compris par une requete
+     * concurrente ou une autre instance : l'appelant qui perd ne doit pas utiliser le jeton.
+     */
+    public boolean revoke(String jti, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (jti == null || expiresAt <= now) {
+            return false;
+        }
+        if (revoked.putIfAbsent(jti, expiresAt) != null) {
+            return false;
+        }
+        try {
+            revokedTokenRepository.insert(jti, new Date(expiresAt), new Date(now));
+        } catch (DataIntegrityViolationException e) {
+            // deja revoque par une autre instance
+            index(jti, expiresAt);
+            return false;
+        } catch (RuntimeException e) {
+            revoked.remove(jti);
+            throw e;
+        }
+        index(jti, expiresAt);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT10S}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        remember(revokedTokenRepository.findRevokedSince(new Date(lastSync - syncOverlapMs), new Date(now)));
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT5M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokenRepository.deleteExpired(new Date(now));
+        synchronized (this) {
+            boolean purged = false;
+            while (!expiryQueue.isEmpty() && expiryQueue.peek().expiresAt() <= now) {
+                revoked.remove(expiryQueue.poll().jti());
+                purged = true;
+            }
+            if (purged) {
+                BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size()), 0.001);
+                revoked.keySet().forEach(rebuilt::put);
+                filter = rebuilt;
+            }
+        }
+    }
+
+    private void remember(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String jti = (String) row[0];
+            long expiresAt = ((Date) row[1]).getTime();
+            if (revoked.putIfAbsent(jti, expiresAt) == null) {
+                index(jti, expiresAt);
+            }
+        }
+    }
+
+    private synchronized void index(String jti, long expiresAt) {
+        expiryQueue.add(new Revocation(jti, expiresAt));
+        filter.put(jti);
+    }
+}
@@ -0,0 +1,109 @@
+package master.ipld.ligueylu.service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.model.SigningKey;
+import master.ipld.ligueylu.repository.signingkey.SigningKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Trousseau de cles HMAC persiste en base : un redemarrage n'invalide plus les sessions.
+ * La cle la plus recente signe les nouveaux jetons ; les anciennes restent utilisables
+ * en verification (via l'en-tete {@code kid}) jusqu'a expiration de tous les jetons emis.
+ */
+@Slf4j
+@Component
+public class SigningKeyRing extends SigningKeyResolverAdapter {
+    private static final long RELOAD_MIN_INTERVAL_MS = 10_000;
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final Duration rotationPeriod;
+    private final Duration retention;
+
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile String currentKid;
+    private volatile Date currentCreatedAt;
+    private volatile long lastReload;
+
+    public SigningKeyRing(SigningKeyRepository signingKeyRepository,
+                          @Value("${jwt.keys.rotation-period:P7D}") Duration rotationPeriod,
+                          @Value("${jwt.refresh-token.ttl:P30D}") Duration refreshTokenTtl) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.rotationPeriod = rotationPeriod;
+        // Une cle retiree doit pouvoir verifier les jetons les plus longs qu'elle a signes
+        this.retention = rotationPeriod.plus(refreshTokenTtl);
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+        rotateIfNeeded();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.keys.check-interval:PT1H}")
+    public void rotateIfNeeded() {
+        if (currentKid == null || currentCreatedAt.toInstant().plus(rotationPeriod).isBefore(new Date().toInstant())) {
+            SigningKey signingKey = new SigningKey(
+                    UUID.randomUUID().toString(),
+                    Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded(),
+                    new Date());
+            signingKeyRepository.save(signingKey);
+            log.info("Nouvelle cle de signature JWT {}", signingKey.getKid());
+        }
+        signingKeyRepository.deleteCreatedBefore(Date.from(new Date().toInstant().minus(retention)));
+        reload();
+    }
+
+    public String currentKid() {
+        return currentKid;
+    }
+
+    public Key currentKey() {
+        return keys.get(currentKid);
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        Key key = kid != null ? keys.get(kid) : null;
+        if (key == null && kid != null && System.currentTimeMillis() - lastReload > RELOAD_MIN_INTERVAL_MS) {
+            // Cle creee par une autre instance depuis le dernier chargement
+            reload();
+            key = keys.get(kid);
+        }
+        if (key == null) {
+            throw new SignatureException("Cle de signature inconnue : " + kid);
+        }
+        return key;
+    }
+
+    private synchronized void reload() {
+        List<SigningKey> signingKeys = signingKeyRepository.findAllByOrderByCreatedAtDesc();
+        Map<String, Key> loaded = new LinkedHashMap<>();
+        for (SigningKey signingKey : signingKeys) {
+            loaded.put(signingKey.getKid(), Keys.hmacShaKeyFor(signingKey.getSecret()));
+        }
+        keys = loaded;
+        if (!signingKeys.isEmpty()) {
+            currentKid = signingKeys.get(0).getKid();
+            currentCreatedAt = signingKeys.get(0).getCreatedAt();
+        }
+        lastReload = System.currentTimeMillis();
+    }
+}
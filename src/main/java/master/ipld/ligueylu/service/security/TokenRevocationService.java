@@ -0,0 +1,81 @@
+package master.ipld.ligueylu.service.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import master.ipld.ligueylu.model.abstracts.Utilisateur;
+import master.ipld.ligueylu.repository.utilisateur.UtilisateurRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation des jetons par version : chaque utilisateur porte un compteur
+ * {@code tokenVersion} recopie dans ses jetons. Incrementer ce compteur invalide
+ * tous les jetons emis auparavant. Seuls les utilisateurs deja revoques sont
+ * gardes en memoire, la verification reste donc un simple acces a une map.
+ * <p>
+ * La memoire n'est mise a jour qu'apres le commit de la transaction appelante, et les
+ * autres instances relisent les versions toutes les {@code jwt.revocation.sync-interval}.
+ * Limite : un utilisateur supprime n'a plus de ligne a relire. Ses jetons d'acces restent
+ * acceptes par les autres instances jusqu'a leur expiration ({@code jwt.access-token.ttl}).
+ * Ses refresh tokens sont refuses partout, faute d'utilisateur correspondant.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+    private final UtilisateurRepository utilisateurRepository;
+    private final Map<Long, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void loadRevokedVersions() {
+        for (Object[] row : utilisateurRepository.findRevokedTokenVersions()) {
+            minimumVersions.merge((Long) row[0], (Integer) row[1], Math::max);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:PT10S}",
+            initialDelayString = "${jwt.revocation.sync-interval:PT10S}")
+    public void sync() {
+        loadRevokedVersions();
+    }
+
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        Integer minimum = minimumVersions.get(userId);
+        return minimum != null && tokenVersion < minimum;
+    }
+
+    /**
+     * Invalide tous les jetons deja emis pour cet utilisateur. L'appelant reste
+     * responsable de sauvegarder l'entite.
+     */
+    public void revokeTokens(Utilisateur user) {
+        int newVersion = user.getTokenVersion() + 1;
+        user.setTokenVersion(newVersion);
+        if (user.getId() != null) {
+            Long userId = user.getId();
+            afterCommit(() -> minimumVersions.merge(userId, newVersion, Math::max));
+        }
+    }
+
+    /** Invalide tous les jetons d'un utilisateur supprime, quelle que soit leur version. */
+    public void revokeDeletedUser(Long userId) {
+        afterCommit(() -> minimumVersions.put(userId, Integer.MAX_VALUE));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
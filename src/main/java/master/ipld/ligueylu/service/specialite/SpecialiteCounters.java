@@ -0,0 +1,162 @@
+package master.ipld.ligueylu.service.specialite;
+
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Nombre de prestataires par specialite, tenu a jour en memoire par les ajouts et retraits
+ * de specialites et par la suppression des prestataires. Un job periodique relit le
+ * {@code GROUP BY} et corrige l'ecart eventuel (ecriture annulee, modification hors application).
+ * <p>
+ * Un libelle modifie pendant la correction n'est pas corrige : son increment a pu etre compte
+ * par le {@code GROUP BY} avant d'etre applique au compteur, ou l'inverse. Il est relu lors
+ * d'une passe suivante, au plus {@value #MAX_PASSES} fois, puis au prochain passage du job.
+ */
+@Slf4j
+@Component
+public class SpecialiteCounters {
+    private static final int MAX_PASSES = 3;
+
+    private final PrestataireRepository prestataireRepository;
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    // libelles modifies depuis le debut de la passe en cours, null hors correction
+    private volatile Set<String> touched;
+    // partage par les increments, exclusif pour appliquer les corrections
+    private final ReadWriteLock correctionLock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public SpecialiteCounters(PrestataireRepository prestataireRepository) {
+        this.prestataireRepository = prestataireRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void increment(String libelle) {
+        add(libelle, 1);
+    }
+
+    public void decrement(String libelle) {
+        add(libelle, -1);
+    }
+
+    private void add(String libelle, long delta) {
+        if (libelle == null) {
+            return;
+        }
+        correctionLock.readLock().lock();
+        try {
+            counters.computeIfAbsent(libelle, l -> new LongAdder()).add(delta);
+            Set<String> reconciling = touched;
+            if (reconciling != null) {
+                reconciling.add(libelle);
+            }
+        } finally {
+            correctionLock.readLock().unlock();
+        }
+    }
+
+    /** Nombre de prestataires rattaches au libelle, 0 s'il n'a jamais ete compte. */
+    public long count(String libelle) {
+        LongAdder adder = counters.get(libelle);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> counts = new HashMap<>();
+        counters.forEach((libelle, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                counts.put(libelle, count);
+            }
+        });
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+        ready = true;
+        log.info("Compteurs de specialites charges ({} libelles)", counters.size());
+    }
+
+    @Scheduled(fixedDelayString = "${specialite.counters.reconcile-interval:PT10M}",
+            initialDelayString = "${specialite.counters.reconcile-interval:PT10M}")
+    public synchronized void reconcile() {
+        Set<String> pending = null;
+        int corrected = 0;
+        for (int pass = 0; pass < MAX_PASSES && (pending == null || !pending.isEmpty()); pass++) {
+            Set<String> retry = new HashSet<>();
+            corrected += reconcilePass(pending, retry);
+            pending = retry;
+        }
+        if (!pending.isEmpty()) {
+            log.info("{} libelles modifies pendant la correction, reportes au prochain passage", pending.size());
+        }
+        if (corrected > 0 && ready) {
+            log.warn("Compteurs de specialites corriges ({} libelles en ecart)", corrected);
+        }
+    }
+
+    // Corrige les libelles de scope (tous si null) ; ceux modifies pendant la passe vont dans retry
+    private int reconcilePass(Set<String> scope, Set<String> retry) {
+        touched = ConcurrentHashMap.newKeySet();
+        List<Object[]> rows = prestataireRepository.countPrestataireBySpecialites();
+        Map<String, Long> expected = new HashMap<>();
+        for (Object[] row : rows) {
+            expected.put((String) row[0], (Long) row[1]);
+        }
+        int corrected = 0;
+        correctionLock.writeLock().lock();
+        try {
+            Set<String> skipped = touched;
+            touched = null;
+            for (Map.Entry<String, Long> entry : expected.entrySet()) {
+                String libelle = entry.getKey();
+                if (scope != null && !scope.contains(libelle)) {
+                    continue;
+                }
+                if (skipped.contains(libelle)) {
+                    retry.add(libelle);
+                    continue;
+                }
+                LongAdder adder = counters.computeIfAbsent(libelle, l -> new LongAdder());
+                long drift = entry.getValue() - adder.sum();
+                if (drift != 0) {
+                    adder.add(drift);
+                    corrected++;
+                }
+            }
+            for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+                String libelle = entry.getKey();
+                if (expected.containsKey(libelle) || (scope != null && !scope.contains(libelle))) {
+                    continue;
+                }
+                if (skipped.contains(libelle)) {
+                    retry.add(libelle);
+                } else if (entry.getValue().sum() != 0) {
+                    entry.getValue().reset();
+                    corrected++;
+                }
+            }
+        } finally {
+            correctionLock.writeLock().unlock();
+        }
+        return corrected;
+    }
+}
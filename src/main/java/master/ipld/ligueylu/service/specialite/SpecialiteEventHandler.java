@@ -0,0 +1,59 @@
+package master.ipld.ligueylu.service.specialite;
+
+import master.ipld.ligueylu.service.event.DomainEvent;
+import master.ipld.ligueylu.service.event.DomainEventHandler;
+import master.ipld.ligueylu.service.prestataire.PrestataireSuggestionIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tient a jour les compteurs, l'index de recherche et les suggestions de specialites a partir
+ * des rattachements publies sur le bus. Une specialite sort des suggestions quand son compteur
+ * retombe a zero. Apres un lot en echec, l'index est reconstruit et les compteurs corriges.
+ */
+@Component
+public class SpecialiteEventHandler implements DomainEventHandler {
+    private final SpecialiteCounters specialiteCounters;
+    private final SpecialiteSearchIndex specialiteSearchIndex;
+    private final PrestataireSuggestionIndex suggestionIndex;
+
+    public SpecialiteEventHandler(SpecialiteCounters specialiteCounters,
+                                  SpecialiteSearchIndex specialiteSearchIndex,
+                                  PrestataireSuggestionIndex suggestionIndex) {
+        this.specialiteCounters = specialiteCounters;
+        this.specialiteSearchIndex = specialiteSearchIndex;
+        this.suggestionIndex = suggestionIndex;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.SpecialiteAdded added) {
+                if (added.nouveauLien()) {
+                    specialiteCounters.increment(added.libelle());
+                }
+                specialiteSearchIndex.add(added.libelle(), added.prestataireId());
+                suggestionIndex.putSpecialite(added.libelle());
+            } else if (event instanceof DomainEvent.SpecialiteRemoved removed) {
+                if (removed.lienRetire()) {
+                    specialiteCounters.decrement(removed.libelle());
+                    // plus aucun prestataire ne la propose : elle ne doit plus etre suggeree
+                    if (specialiteCounters.isReady() && specialiteCounters.count(removed.libelle()) <= 0) {
+                        suggestionIndex.removeSpecialite(removed.libelle());
+                    }
+                }
+                specialiteSearchIndex.remove(removed.libelle(), removed.prestataireId());
+            } else if (event instanceof DomainEvent.PrestataireDeleted deleted) {
+                specialiteSearchIndex.removePrestataire(deleted.prestataireId());
+            }
+        }
+    }
+
+    @Override
+    public void recover() {
+        specialiteSearchIndex.rebuild();
+        specialiteCounters.reconcile();
+        suggestionIndex.warmUp();
+    }
+}
@@ -0,0 +1,177 @@
+package master.ipld.ligueylu.service.specialite;
+
+import lombok.extern.slf4j.Slf4j;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.util.TextFolding;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index en memoire specialite -> prestataires, avec un index de trigrammes sur les
+ * libelles pour resoudre les recherches par sous-chaine sans {@code LIKE '%...%'}.
+ * Libelles et requetes sont normalises par {@link TextFolding} avant le decoupage en
+ * trigrammes : "electricite" trouve "Électricité", et inversement.
+ * Les libelles sont peu nombreux : les trigrammes reduisent les candidats, puis un
+ * {@code contains} confirme chaque libelle retenu.
+ * <p>
+ * Les mises a jour sont serialisees ; le chargement initial ignore les liens ajoutes ou
+ * retires pendant sa lecture, et les prestataires supprimes entre-temps.
+ */
+@Slf4j
+@Component
+public class SpecialiteSearchIndex {
+    private final PrestataireRepository prestataireRepository;
+    private final Map<String, Set<Long>> prestatairesByLibelle = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> libellesByTrigram = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    // modifications faites pendant le chargement initial, null hors chargement ; gardes par this
+    private Set<String> linksTouchedDuringWarmUp;
+    private Set<Long> prestatairesRemovedDuringWarmUp;
+
+    public SpecialiteSearchIndex(PrestataireRepository prestataireRepository) {
+        this.prestataireRepository = prestataireRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        synchronized (this) {
+            linksTouchedDuringWarmUp = new HashSet<>();
+            prestatairesRemovedDuringWarmUp = new HashSet<>();
+        }
+        List<Object[]> rows = prestataireRepository.findSpecialiteLibellesWithPrestataireIds();
+        synchronized (this) {
+            for (Object[] row : rows) {
+                String libelle = (String) row[0];
+                Long prestataireId = (Long) row[1];
+                if (libelle != null && prestataireId != null
+                        && !prestatairesRemovedDuringWarmUp.contains(prestataireId)
+                        && !linksTouchedDuringWarmUp.contains(link(normalize(libelle), prestataireId))) {
+                    index(normalize(libelle), prestataireId);
+                }
+            }
+            linksTouchedDuringWarmUp = null;
+            prestatairesRemovedDuringWarmUp = null;
+        }
+        ready = true;
+        log.info("Index des specialites charge ({} libelles, {} liens)", prestatairesByLibelle.size(), rows.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Vide l'index et le recharge depuis la base ; les recherches passent par la base en attendant. */
+    public void rebuild() {
+        synchronized (this) {
+            ready = false;
+            prestatairesByLibelle.clear();
+            libellesByTrigram.clear();
+        }
+        warmUp();
+    }
+
+    public synchronized void add(String libelle, Long prestataireId) {
+        if (libelle == null || prestataireId == null) {
+            return;
+        }
+        String key = normalize(libelle);
+        touch(key, prestataireId);
+        index(key, prestataireId);
+    }
+
+    private void index(String key, Long prestataireId) {
+        prestatairesByLibelle.computeIfAbsent(key, k -> {
+            for (String trigram : trigrams(k)) {
+                libellesByTrigram.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(k);
+            }
+            return ConcurrentHashMap.newKeySet();
+        }).add(prestataireId);
+    }
+
+    public synchronized void remove(String libelle, Long prestataireId) {
+        if (libelle == null || prestataireId == null) {
+            return;
+        }
+        String key = normalize(libelle);
+        touch(key, prestataireId);
+        Set<Long> ids = prestatairesByLibelle.get(key);
+        if (ids != null) {
+            ids.remove(prestataireId);
+        }
+    }
+
+    public synchronized void removePrestataire(Long prestataireId) {
+        if (prestatairesRemovedDuringWarmUp != null) {
+            prestatairesRemovedDuringWarmUp.add(prestataireId);
+        }
+        prestatairesByLibelle.values().forEach(ids -> ids.remove(prestataireId));
+    }
+
+    private void touch(String key, Long prestataireId) {
+        if (linksTouchedDuringWarmUp != null) {
+            linksTouchedDuringWarmUp.add(link(key, prestataireId));
+        }
+    }
+
+    private static String link(String key, Long prestataireId) {
+        return prestataireId + ":" + key;
+    }
+
+    /**
+     * Identifiants des prestataires dont une specialite contient {@code query}, sans tenir compte
+     * de la casse ni des accents.
+     */
+    public Set<Long> search(String query) {
+        String needle = normalize(query);
+        Set<Long> result = new HashSet<>();
+        for (String libelle : candidateLibelles(needle)) {
+            if (libelle.contains(needle)) {
+                result.addAll(prestatairesByLibelle.getOrDefault(libelle, Set.of()));
+            }
+        }
+        return result;
+    }
+
+    private Set<String> candidateLibelles(String needle) {
+        Set<String> needleTrigrams = trigrams(needle);
+        if (needleTrigrams.isEmpty()) {
+            // Moins de trois caracteres : on verifie tous les libelles
+            return prestatairesByLibelle.keySet();
+        }
+        Set<String> candidates = null;
+        for (String trigram : needleTrigrams) {
+            Set<String> libelles = libellesByTrigram.get(trigram);
+            if (libelles == null) {
+                return Set.of();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(libelles);
+            } else {
+                candidates.retainAll(libelles);
+            }
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        return candidates;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static String normalize(String value) {
+        return TextFolding.fold(value);
+    }
+}
@@ -0,0 +1,82 @@
+package master.ipld.ligueylu.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV incremental (RFC 4180) : un enregistrement a la fois, champs entre guillemets,
+ * guillemets doubles echappes et retours a la ligne dans les champs. La memoire utilisee ne
+ * depend que de la taille d'un enregistrement, pas de celle du fichier.
+ */
+public class CsvReader implements Closeable {
+    private final PushbackReader reader;
+    private final char separator;
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(Reader reader, char separator) {
+        this.reader = new PushbackReader(reader, 1);
+        this.separator = separator;
+    }
+
+    /** Champs de l'enregistrement suivant, ou {@code null} en fin de flux. */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        recordLine = line;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.unread(next);
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Numero de la ligne ou commence le dernier enregistrement lu. */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,84 @@
+package master.ipld.ligueylu.util;
+
+import master.ipld.ligueylu.response.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodage des curseurs de pagination (keyset). Le contenu est une simple cle
+ * ({@code id} ou {@code score:id}) encodee en base64 url, opaque pour les clients.
+ */
+public final class Cursors {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    public record ScoreCursor(double score, long id) {}
+
+    private Cursors() {
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public static String encodeId(long id) {
+        return encode(Long.toString(id));
+    }
+
+    public static long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+
+    public static String encodeScore(double score, long id) {
+        return encode(score + ":" + id);
+    }
+
+    public static ScoreCursor decodeScore(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor).split(":");
+        try {
+            return new ScoreCursor(Double.parseDouble(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+
+    /**
+     * Construit la page a partir de {@code limit + 1} lignes : la ligne en trop
+     * indique seulement qu'une page suivante existe.
+     */
+    public static <T> CursorPage<T> page(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package master.ipld.ligueylu.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation des textes saisis : minuscules, sans accents ni signes diacritiques
+ * (francais et wolof : "é" -> "e", "ë" -> "e", "ñ" -> "n", "ŋ" -> "n").
+ */
+public final class TextFolding {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextFolding() {
+    }
+
+    public static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace('ŋ', 'n')
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+    }
+
+    public static List<String> tokens(String value) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(value))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
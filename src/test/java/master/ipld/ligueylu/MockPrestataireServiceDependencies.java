@@ -0,0 +1,46 @@
+package master.ipld.ligueylu;
+
+import master.ipld.ligueylu.service.authentication.CustomUserDetailsService;
+import master.ipld.ligueylu.service.authentication.EmailExistenceIndex;
+import master.ipld.ligueylu.service.event.DomainEventBus;
+import master.ipld.ligueylu.service.prestataire.PrestataireGeoIndex;
+import master.ipld.ligueylu.service.prestataire.PrestataireSuggestionIndex;
+import master.ipld.ligueylu.service.prestataire.ScoreLeaderboard;
+import master.ipld.ligueylu.service.reservation.AvailabilityBitmaps;
+import master.ipld.ligueylu.service.reservation.IReservationService;
+import master.ipld.ligueylu.service.reservation.ReservationSlotIndex;
+import master.ipld.ligueylu.service.security.TokenRevocationService;
+import master.ipld.ligueylu.service.specialite.SpecialiteCounters;
+import master.ipld.ligueylu.service.specialite.SpecialiteSearchIndex;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Remplace par des mocks les collaborateurs de {@code PrestataireService} qui ne sont pas des
+ * repositories, pour le tester sur une tranche JPA. Un test qui doit en programmer un le
+ * recupere par {@code @Autowired}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@MockitoBean(types = {
+        PasswordEncoder.class,
+        TokenRevocationService.class,
+        CustomUserDetailsService.class,
+        EmailExistenceIndex.class,
+        SpecialiteSearchIndex.class,
+        SpecialiteCounters.class,
+        PrestataireSuggestionIndex.class,
+        PrestataireGeoIndex.class,
+        ScoreLeaderboard.class,
+        IReservationService.class,
+        ReservationSlotIndex.class,
+        AvailabilityBitmaps.class,
+        DomainEventBus.class
+})
+public @interface MockPrestataireServiceDependencies {
+}
@@ -0,0 +1,18 @@
+package master.ipld.ligueylu;
+
+import master.ipld.ligueylu.model.Prestataire;
+
+/**
+ * Entites de test partagees. Les valeurs respectent les contraintes de validation
+ * (mot de passe alphanumerique, telephone a 7-9 chiffres).
+ */
+public final class TestFixtures {
+    public static final String PASSWORD = "motdepasse1";
+
+    private TestFixtures() {
+    }
+
+    public static Prestataire prestataire(String email, String nomComplet) {
+        return new Prestataire(email, nomComplet, PASSWORD, "771234567");
+    }
+}
@@ -0,0 +1,18 @@
+package master.ipld.ligueylu;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registre de metriques en memoire pour les tranches de contexte ({@code @DataJpaTest}) qui
+ * n'ont pas l'auto-configuration Micrometer.
+ */
+@TestConfiguration
+public class TestMetrics {
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
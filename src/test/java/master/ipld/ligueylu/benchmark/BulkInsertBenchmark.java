@@ -0,0 +1,96 @@
+package master.ipld.ligueylu.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import master.ipld.ligueylu.model.Notification;
+import master.ipld.ligueylu.model.Reservation;
+import master.ipld.ligueylu.model.enums.Status;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Debit des creations en masse de reservations et de notifications, avec et sans regroupement
+ * JDBC. Lance par {@code gradle benchmark} (exclu de {@code test}) ; sur H2 en memoire les
+ * chiffres sont indicatifs, le gain reel vient des allers-retours evites vers MySQL.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.springframework=INFO"
+})
+@ActiveProfiles("test")
+class BulkInsertBenchmark {
+    private static final int ROWS = 20_000;
+    private static final int FLUSH_EVERY = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void reservations() {
+        run("reservations", i -> {
+            Reservation reservation = new Reservation();
+            reservation.setLibelle("Reservation " + i);
+            reservation.setStatus(Status.EN_ATTENTE);
+            reservation.setCreationDate(new Date());
+            return reservation;
+        });
+    }
+
+    @Test
+    void notifications() {
+        run("notifications", i -> {
+            Notification notification = new Notification();
+            notification.setLibelle("Notification " + i);
+            notification.setDate(new Date());
+            return notification;
+        });
+    }
+
+    private record Result(long millis, long statements) {
+        double rowsPerSecond() {
+            return ROWS * 1000.0 / millis;
+        }
+    }
+
+    private void run(String label, IntFunction<Object> factory) {
+        insert(factory, 1); // chauffe
+        Result unbatched = insert(factory, 1);
+        Result batched = insert(factory, 50);
+        System.out.printf("%s : %d lignes, sans lots %.0f lignes/s (%d requetes), lots de 50 %.0f lignes/s (%d requetes)%n",
+                label, ROWS, unbatched.rowsPerSecond(), unbatched.statements(),
+                batched.rowsPerSecond(), batched.statements());
+        assertTrue(batched.statements() < ROWS / 10, "les insertions doivent etre groupees");
+    }
+
+    private Result insert(IntFunction<Object> factory, int batchSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(factory.apply(i));
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        long millis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        return new Result(millis, statistics.getPrepareStatementCount());
+    }
+}
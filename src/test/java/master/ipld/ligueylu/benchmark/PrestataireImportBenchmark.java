@@ -0,0 +1,75 @@
+package master.ipld.ligueylu.benchmark;
+
+import master.ipld.ligueylu.response.ImportReport;
+import master.ipld.ligueylu.service.authentication.EmailExistenceIndex;
+import master.ipld.ligueylu.service.prestataire.PrestataireImportReader;
+import master.ipld.ligueylu.service.prestataire.PrestataireImportService;
+import master.ipld.ligueylu.service.prestataire.PrestataireSuggestionIndex;
+import master.ipld.ligueylu.service.prestataire.ScoreLeaderboard;
+import master.ipld.ligueylu.service.specialite.SpecialiteCounters;
+import master.ipld.ligueylu.service.specialite.SpecialiteSearchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Debit de l'import en masse, transactions par paquet reelles (pas de transaction de test).
+ * Avec des mots de passe deja haches, le cout est celui de l'analyse et des ecritures groupees ;
+ * en clair, il est borne par BCrypt (environ nombre de coeurs / 70 ms au cout 10).
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "logging.level.org.springframework=INFO"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PrestataireImportService.class, EmailExistenceIndex.class, SpecialiteSearchIndex.class,
+        SpecialiteCounters.class, PrestataireSuggestionIndex.class, ScoreLeaderboard.class,
+        JacksonAutoConfiguration.class})
+class PrestataireImportBenchmark {
+    private static final String[] SPECIALITES = {"Plomberie", "Electricite", "Maconnerie", "Peinture", "Jardinage"};
+
+    @Autowired
+    private PrestataireImportService importService;
+
+    @Test
+    void csvWithPrehashedPasswords() throws IOException {
+        String hash = new BCryptPasswordEncoder(10).encode("motdepasse1");
+        ImportReport report = run("csv", 20_000, hash);
+        assertEquals(20_000, report.getLignesImportees());
+    }
+
+    @Test
+    void csvWithPlainPasswords() throws IOException {
+        ImportReport report = run("clair", 500, "motdepasse1");
+        assertEquals(500, report.getLignesImportees());
+    }
+
+    private ImportReport run(String prefix, int rows, String password) throws IOException {
+        StringBuilder csv = new StringBuilder("email,nomComplet,telephone,password,specialites,services\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(prefix).append(i).append("@agence.sn,Prestataire ").append(i).append(",77").append(String.format("%07d", i))
+                    .append(',').append(password)
+                    .append(',').append(SPECIALITES[i % SPECIALITES.length]).append('|').append(SPECIALITES[(i + 1) % SPECIALITES.length])
+                    .append(",PLOMBIER:60:15000|PEINTRE:120:25000:Murs interieurs\n");
+        }
+        ImportReport report = importService.importPrestataires(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), PrestataireImportReader.Format.CSV);
+        System.out.printf("import %s : %d lignes en %d ms, %.0f lignes/s, %d rejetees%n",
+                prefix, report.getLignesLues(), report.getDureeMs(), report.getLignesParSeconde(), report.getLignesRejetees());
+        return report;
+    }
+}
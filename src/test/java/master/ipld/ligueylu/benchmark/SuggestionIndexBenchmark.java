@@ -0,0 +1,73 @@
+package master.ipld.ligueylu.benchmark;
+
+import master.ipld.ligueylu.service.prestataire.PrestataireSuggestionIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latence de l'autocompletion sur un million de prestataires aux noms generes (deux mots de
+ * syllabes aleatoires, soit environ trois millions de termes). Mesure le p99 des saisies qui
+ * prolongent un nom existant, sans faute puis avec une faute. Lance par {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class SuggestionIndexBenchmark {
+    private static final int ENTRIES = 1_000_000;
+    private static final int QUERIES = 20_000;
+    private static final long P99_BUDGET_NANOS = 5_000_000;
+    private static final String[] SYLLABES = {"ba", "di", "fa", "ka", "la", "ma", "ndi", "ne", "ou", "sa",
+            "se", "ta", "to", "wa", "ya", "mou", "kou", "gue", "ye", "lo"};
+
+    @Test
+    void prefixQueriesAtOneMillionEntries() {
+        Random random = new Random(42);
+        PrestataireSuggestionIndex index = new PrestataireSuggestionIndex(null, null);
+        String[] names = new String[ENTRIES];
+        long start = System.nanoTime();
+        for (int i = 0; i < ENTRIES; i++) {
+            names[i] = word(random) + " " + word(random);
+            index.putPrestataire((long) i, names[i]);
+        }
+        System.out.printf("autocompletion : %d entrees chargees en %d ms%n",
+                ENTRIES, (System.nanoTime() - start) / 1_000_000);
+
+        run(index, names, new Random(7), false); // chauffe
+        long exact = run(index, names, new Random(1), false);
+        long typo = run(index, names, new Random(2), true);
+        System.out.printf("autocompletion : p99 prefixe exact %.2f ms, avec une faute %.2f ms%n",
+                exact / 1e6, typo / 1e6);
+        assertTrue(exact < P99_BUDGET_NANOS, "p99 des prefixes exacts au-dela de 5 ms");
+    }
+
+    private static long run(PrestataireSuggestionIndex index, String[] names, Random random, boolean typo) {
+        long[] latencies = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            String name = names[random.nextInt(names.length)];
+            String query = name.substring(0, Math.min(name.length(), 3 + random.nextInt(6)));
+            if (typo) {
+                char[] chars = query.toCharArray();
+                chars[1 + random.nextInt(chars.length - 1)] = 'x';
+                query = new String(chars);
+            }
+            long begin = System.nanoTime();
+            index.suggest(query, 10);
+            latencies[q] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        return latencies[(int) (QUERIES * 0.99)];
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllabes = 2 + random.nextInt(3);
+        for (int s = 0; s < syllabes; s++) {
+            word.append(SYLLABES[random.nextInt(SYLLABES.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package master.ipld.ligueylu.repository;
+
+import master.ipld.ligueylu.model.NotificationOutbox;
+import master.ipld.ligueylu.model.enums.StatutNotification;
+import master.ipld.ligueylu.repository.notification.NotificationOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Seules les notifications en attente, echues et sans bail en cours sont reclamables.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class NotificationOutboxClaimTest {
+    private static final long MINUTE = 60_000L;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Test
+    void claimableSkipsSentDelayedAndLeasedRows() {
+        long now = System.currentTimeMillis();
+        NotificationOutbox due = outbox("reservation:1:EN_ATTENTE");
+        NotificationOutbox delayed = outbox("reservation:2:EN_ATTENTE");
+        delayed.setDisponibleLe(new Date(now + MINUTE));
+        NotificationOutbox leased = outbox("reservation:3:EN_ATTENTE");
+        leased.setVerrouilleJusqua(new Date(now + MINUTE));
+        NotificationOutbox expiredLease = outbox("reservation:4:EN_ATTENTE");
+        expiredLease.setVerrouilleJusqua(new Date(now - MINUTE));
+        NotificationOutbox sent = outbox("reservation:5:EN_ATTENTE");
+        sent.setStatut(StatutNotification.ENVOYEE);
+        List.of(due, delayed, leased, expiredLease, sent).forEach(entityManager::persist);
+        entityManager.flush();
+
+        List<NotificationOutbox> claimed = outboxRepository.claimable(new Date(now + 1), Limit.of(10));
+
+        assertEquals(List.of(due.getId(), expiredLease.getId()), claimed.stream().map(NotificationOutbox::getId).toList());
+    }
+
+    private NotificationOutbox outbox(String cle) {
+        NotificationOutbox row = new NotificationOutbox(cle, "RESERVATION_CREEE", "RESERVATION", 1L, 1L, "{}");
+        row.setDisponibleLe(new Date(System.currentTimeMillis() - MINUTE));
+        return row;
+    }
+}
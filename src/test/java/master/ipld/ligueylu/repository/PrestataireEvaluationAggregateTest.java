@@ -0,0 +1,89 @@
+package master.ipld.ligueylu.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import master.ipld.ligueylu.TestFixtures;
+import master.ipld.ligueylu.dto.EvaluationStatsDto;
+import master.ipld.ligueylu.model.Adresse;
+import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.repository.adresse.AdresseRepository;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Le score bayesien est recalcule a partir des anciens agregats, en un seul UPDATE.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class PrestataireEvaluationAggregateTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PrestataireRepository prestataireRepository;
+    @Autowired
+    private AdresseRepository adresseRepository;
+
+    @Test
+    void applyEvaluationUpdatesCountSumAndBayesianScore() {
+        Prestataire prestataire = TestFixtures.prestataire("electricien@ligueylu.sn", "Awa Ndiaye");
+        entityManager.persistAndFlush(prestataire);
+        Long id = prestataire.getId();
+
+        prestataireRepository.applyEvaluation(id, 5.0, 3.0, 5);
+        prestataireRepository.applyEvaluation(id, 4.0, 3.0, 5);
+
+        EvaluationStatsDto stats = prestataireRepository.findEvaluationStatsById(id).orElseThrow();
+        assertEquals(2, stats.getNombreEvaluations());
+        assertEquals(9.0, stats.getSommeNotes(), 1e-9);
+        assertEquals((5 * 3.0 + 9.0) / (5 + 2), stats.getScore(), 1e-9);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void savingAPrestataireLoadedBeforeAnEvaluationKeepsTheEvaluation() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long id = transaction.execute(status -> prestataireRepository.save(
+                TestFixtures.prestataire("menuisier@ligueylu.sn", "Cheikh Ba")).getId());
+        Adresse adresse = transaction.execute(status -> adresseRepository.save(
+                new Adresse(12, "10200", "Thies", "Senegal", "Rue 4")));
+
+        // mise a jour d'adresse qui a lu le prestataire avant l'evaluation, et le sauvegarde apres
+        EntityManager addressUpdate = entityManagerFactory.createEntityManager();
+        try {
+            addressUpdate.getTransaction().begin();
+            Prestataire stale = addressUpdate.find(Prestataire.class, id);
+            transaction.execute(status -> prestataireRepository.applyEvaluation(id, 5.0, 3.0, 5));
+            stale.setAdresse(addressUpdate.find(Adresse.class, adresse.getId()));
+            addressUpdate.getTransaction().commit();
+        } finally {
+            addressUpdate.close();
+        }
+
+        try {
+            EvaluationStatsDto stats = prestataireRepository.findEvaluationStatsById(id).orElseThrow();
+            assertEquals(1, stats.getNombreEvaluations());
+            assertEquals(5.0, stats.getSommeNotes(), 1e-9);
+            assertEquals((5 * 3.0 + 5.0) / (5 + 1), stats.getScore(), 1e-9);
+            assertEquals(adresse.getId(), prestataireRepository.findById(id).orElseThrow().getAdresse().getId());
+        } finally {
+            transaction.executeWithoutResult(status -> {
+                prestataireRepository.deleteById(id);
+                adresseRepository.deleteById(adresse.getId());
+            });
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package master.ipld.ligueylu.repository;
+
+import master.ipld.ligueylu.TestFixtures;
+import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.model.Reservation;
+import master.ipld.ligueylu.model.enums.Status;
+import master.ipld.ligueylu.repository.reservation.ReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Les lectures de creneaux ignorent les reservations passees ou annulees.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ReservationUpcomingSlotsTest {
+    private static final long HOUR = 3_600_000L;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void findUpcomingSlotsSkipsPastAndCancelledReservations() {
+        Prestataire prestataire = TestFixtures.prestataire("plombier@ligueylu.sn", "Moussa Diop");
+        entityManager.persist(prestataire);
+        long now = System.currentTimeMillis();
+        Reservation passee = slot(prestataire, now - 3 * HOUR, now - 2 * HOUR, Status.EN_ATTENTE);
+        Reservation annulee = slot(prestataire, now + HOUR, now + 2 * HOUR, Status.ANNULE);
+        Reservation aVenir = slot(prestataire, now + 3 * HOUR, now + 4 * HOUR, Status.EN_ATTENTE);
+        entityManager.flush();
+
+        List<Object[]> slots = reservationRepository.findUpcomingSlots(prestataire.getId(), new Date(now));
+
+        assertEquals(1, slots.size());
+        assertEquals(aVenir.getId(), slots.get(0)[0]);
+    }
+
+    @Test
+    void findBusyPrestataireIdsKeepsOnlyOverlappingActiveReservations() {
+        Prestataire occupe = TestFixtures.prestataire("macon@ligueylu.sn", "Fatou Sall");
+        Prestataire libre = TestFixtures.prestataire("peintre@ligueylu.sn", "Ibou Faye");
+        entityManager.persist(occupe);
+        entityManager.persist(libre);
+        long now = System.currentTimeMillis();
+        slot(occupe, now + HOUR, now + 2 * HOUR, Status.EN_ATTENTE);
+        slot(libre, now + HOUR, now + 2 * HOUR, Status.ANNULE);
+        slot(libre, now + 2 * HOUR, now + 3 * HOUR, Status.EN_ATTENTE);
+        entityManager.flush();
+
+        List<Long> busy = reservationRepository.findBusyPrestataireIds(
+                List.of(occupe.getId(), libre.getId()), new Date(now + HOUR), new Date(now + 2 * HOUR));
+
+        assertEquals(List.of(occupe.getId()), busy);
+    }
+
+    private Reservation slot(Prestataire prestataire, long debut, long fin, Status status) {
+        Reservation reservation = new Reservation();
+        reservation.setLibelle("Intervention");
+        reservation.setStatus(status);
+        reservation.setCreationDate(new Date());
+        reservation.setDebut(new Date(debut));
+        reservation.setFin(new Date(fin));
+        reservation.setPrestataire(prestataire);
+        return entityManager.persist(reservation);
+    }
+}
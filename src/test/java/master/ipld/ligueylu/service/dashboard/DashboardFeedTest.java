@@ -0,0 +1,87 @@
+package master.ipld.ligueylu.service.dashboard;
+
+import master.ipld.ligueylu.model.NotificationOutbox;
+import master.ipld.ligueylu.repository.notification.NotificationOutboxRepository;
+import master.ipld.ligueylu.service.notification.NotificationMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Le poll avance par pages (creeLe, id) : un chevauchement plus dense qu'une page ne le bloque pas.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class DashboardFeedTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    private DashboardStreams streams;
+    private DashboardFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        streams = mock(DashboardStreams.class);
+        when(streams.connectionCount()).thenReturn(1);
+        when(streams.isConnected(anyLong())).thenReturn(true);
+        when(streams.publish(any())).thenReturn(true);
+        feed = new DashboardFeed(outboxRepository, streams, Duration.ofSeconds(10), 2);
+    }
+
+    @Test
+    void pollPagesThroughRowsSharingTheSameTimestamp() {
+        Date creeLe = new Date(System.currentTimeMillis() - 1_000);
+        List<Long> ids = IntStream.range(0, 5)
+                .mapToObj(i -> persist("reservation:" + i + ":EN_ATTENTE", creeLe))
+                .toList();
+
+        feed.poll();
+        feed.poll();
+
+        ArgumentCaptor<NotificationMessage> published = ArgumentCaptor.forClass(NotificationMessage.class);
+        verify(streams, atLeastOnce()).publish(published.capture());
+        assertEquals(ids, published.getAllValues().stream().map(NotificationMessage::id).toList());
+    }
+
+    @Test
+    void eventReadBeforeItsRecipientConnectsIsPushedByTheNextPoll() {
+        Long id = persist("reservation:1:EN_ATTENTE", new Date(System.currentTimeMillis() - 1_000));
+        when(streams.isConnected(anyLong())).thenReturn(false);
+        feed.poll();
+
+        when(streams.isConnected(anyLong())).thenReturn(true);
+        feed.poll();
+        feed.poll();
+
+        ArgumentCaptor<NotificationMessage> published = ArgumentCaptor.forClass(NotificationMessage.class);
+        verify(streams, atLeastOnce()).publish(published.capture());
+        assertEquals(List.of(id), published.getAllValues().stream().map(NotificationMessage::id).toList());
+    }
+
+    private Long persist(String cle, Date creeLe) {
+        NotificationOutbox row = new NotificationOutbox(cle, "RESERVATION_CREEE", "RESERVATION", 1L, 1L, "{}");
+        row.setCreeLe(creeLe);
+        entityManager.persist(row);
+        entityManager.flush();
+        return row.getId();
+    }
+}
@@ -0,0 +1,82 @@
+package master.ipld.ligueylu.service.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DashboardStreamsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private DashboardStreams streams;
+
+    @AfterEach
+    void shutdown() {
+        unblock.countDown();
+        streams.shutdown();
+    }
+
+    @Test
+    void stalledClientIsClosedAndDoesNotHoldBackOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        List<SseEmitter> emitters = List.of(
+                // client fige : l'ecriture ne rend la main qu'a la fin du test
+                new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        stalled.countDown();
+                        awaitQuietly(unblock);
+                    }
+
+                    @Override
+                    public void complete() {
+                        completed.countDown();
+                    }
+                },
+                new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) {
+                        delivered.countDown();
+                    }
+                });
+        streams = new DashboardStreams(Duration.ofMinutes(30), 64, 100, 1, Duration.ofMillis(50), meterRegistry) {
+            private int next;
+
+            @Override
+            synchronized SseEmitter newEmitter() {
+                return emitters.get(next++);
+            }
+        };
+
+        streams.subscribe(1L, List.of(), false);
+        assertTrue(stalled.await(5, TimeUnit.SECONDS));
+        streams.subscribe(2L, List.of(), false);
+        Thread.sleep(100);
+        streams.abortStalledWrites();
+
+        // le seul thread d'envoi est bloque : l'autre client n'est servi que par son remplacant
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.counter("dashboard.sse.write.timeouts").count());
+        assertEquals(1, streams.connectionCount());
+        unblock.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
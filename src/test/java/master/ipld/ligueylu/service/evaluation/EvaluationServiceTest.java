@@ -0,0 +1,103 @@
+package master.ipld.ligueylu.service.evaluation;
+
+import master.ipld.ligueylu.TestFixtures;
+import master.ipld.ligueylu.TestMetrics;
+import master.ipld.ligueylu.exception.ResourceAlreadyExistException;
+import master.ipld.ligueylu.model.Evaluation;
+import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.model.Service;
+import master.ipld.ligueylu.repository.evaluation.EvaluationRepository;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.repository.service.ServiceRepository;
+import master.ipld.ligueylu.request.AddEvaluationRequest;
+import master.ipld.ligueylu.service.event.DomainEvent;
+import master.ipld.ligueylu.service.event.DomainEventBus;
+import master.ipld.ligueylu.service.lock.PrestataireLocks;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Le score n'est publie qu'apres le commit, et une double evaluation concurrente donne un 409.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({EvaluationService.class, PrestataireLocks.class, TestMetrics.class})
+class EvaluationServiceTest {
+    @Autowired
+    private EvaluationService evaluationService;
+    @Autowired
+    private PrestataireRepository prestataireRepository;
+    @Autowired
+    private ServiceRepository serviceRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @MockitoSpyBean
+    private EvaluationRepository evaluationRepository;
+    @MockitoBean
+    private DomainEventBus eventBus;
+
+    @Test
+    void evaluationInsertedAfterTheExistenceCheckIsAConflict() {
+        Service service = service("plombier@ligueylu.sn");
+        evaluationRepository.saveAndFlush(new Evaluation(null, 4.0, "deja evalue", service));
+        // l'evaluation concurrente n'etait pas encore validee lors de la verification
+        doReturn(false).when(evaluationRepository).existsByServiceId(service.getId());
+
+        assertThrows(ResourceAlreadyExistException.class, () -> evaluationService.addEvaluation(request(service, 5.0)));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void scoreIsPublishedAfterCommitAndNotOnRollback() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Service committed = transaction.execute(status -> service("macon@ligueylu.sn"));
+        Service rolledBack = transaction.execute(status -> service("peintre@ligueylu.sn"));
+        try {
+            transaction.executeWithoutResult(status -> {
+                evaluationService.addEvaluation(request(rolledBack, 5.0));
+                status.setRollbackOnly();
+            });
+            verify(eventBus, never()).publish(any());
+
+            evaluationService.addEvaluation(request(committed, 5.0));
+            verify(eventBus).publish(new DomainEvent.ScoreChanged(committed.getPrestataire().getId(), (5 * 3.0 + 5.0) / (5 + 1)));
+        } finally {
+            transaction.executeWithoutResult(status -> {
+                evaluationRepository.deleteAll(evaluationRepository.findAll());
+                for (Service service : new Service[]{committed, rolledBack}) {
+                    serviceRepository.deleteById(service.getId());
+                    prestataireRepository.deleteById(service.getPrestataire().getId());
+                }
+            });
+        }
+    }
+
+    private Service service(String email) {
+        Prestataire prestataire = prestataireRepository.save(TestFixtures.prestataire(email, "Moussa Diop"));
+        Service service = new Service();
+        service.setPrestataire(prestataire);
+        return serviceRepository.saveAndFlush(service);
+    }
+
+    private static AddEvaluationRequest request(Service service, double note) {
+        AddEvaluationRequest request = new AddEvaluationRequest();
+        request.setServiceId(service.getId());
+        request.setNote(note);
+        return request;
+    }
+}
@@ -0,0 +1,162 @@
+package master.ipld.ligueylu.service.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainEventBusTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DomainEventBus bus;
+
+    @AfterEach
+    void stopBus() throws InterruptedException {
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void eventsArriveInOrderAcrossManyWrapsOfTheRing() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        bus = start(4, recorder);
+
+        for (long id = 0; id < 1_000; id++) {
+            bus.publish(new DomainEvent.PrestataireDeleted(id));
+        }
+        bus.stop();
+
+        assertEquals(LongStream.range(0, 1_000).boxed().toList(), recorder.ids());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 5_000;
+        Recorder recorder = new Recorder();
+        bus = start(64, recorder);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = p * 1_000_000L;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    bus.publish(new DomainEvent.PrestataireDeleted(base + i));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        bus.stop();
+
+        List<Long> ids = recorder.ids();
+        assertEquals(producers * perProducer, ids.size());
+        for (int p = 0; p < producers; p++) {
+            long base = p * 1_000_000L;
+            List<Long> own = ids.stream().filter(id -> id >= base && id < base + 1_000_000L).toList();
+            assertEquals(LongStream.range(base, base + perProducer).boxed().toList(), own);
+        }
+    }
+
+    @Test
+    void fullRingBlocksTheProducerInsteadOfDroppingTheEvent() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                blocked.countDown();
+                awaitQuietly(release);
+                super.onEvents(events);
+            }
+        };
+        bus = start(4, recorder);
+
+        bus.publish(new DomainEvent.PrestataireDeleted(0L));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (long id = 1; id < 4; id++) {
+            bus.publish(new DomainEvent.PrestataireDeleted(id));
+        }
+        Thread producer = new Thread(() -> bus.publish(new DomainEvent.PrestataireDeleted(4L)));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive(), "anneau plein : le producteur attend");
+        assertEquals(1.0, meterRegistry.counter("domain.events.ring.full").count());
+
+        release.countDown();
+        producer.join(5_000);
+        bus.stop();
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), recorder.ids());
+    }
+
+    @Test
+    void aFailedBatchTriggersRecoveryAndLaterBatchesStillArrive() throws InterruptedException {
+        AtomicInteger recoveries = new AtomicInteger();
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                super.onEvents(events);
+                if (ids().contains(3L) && recoveries.get() == 0) {
+                    throw new AssertionError("handler en echec");
+                }
+            }
+
+            @Override
+            public void recover() {
+                recoveries.incrementAndGet();
+            }
+        };
+        bus = start(4, recorder);
+
+        for (long id = 0; id < 20; id++) {
+            bus.publish(new DomainEvent.PrestataireDeleted(id));
+        }
+        bus.stop();
+
+        assertEquals(1, recoveries.get());
+        assertEquals(1.0, meterRegistry.get("domain.events.handler.errors").counter().count());
+        assertEquals(LongStream.range(0, 20).boxed().toList(), recorder.ids());
+    }
+
+    private DomainEventBus start(int ringSize, DomainEventHandler handler) {
+        DomainEventBus started = new DomainEventBus(List.of(handler), ringSize, 16, meterRegistry);
+        started.start();
+        return started;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Recorder implements DomainEventHandler {
+        private final List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            for (DomainEvent event : events) {
+                ids.add(((DomainEvent.PrestataireDeleted) event).prestataireId());
+            }
+        }
+
+        List<Long> ids() {
+            return List.copyOf(ids);
+        }
+    }
+}
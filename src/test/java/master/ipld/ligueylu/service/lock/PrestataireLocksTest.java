@@ -0,0 +1,84 @@
+package master.ipld.ligueylu.service.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import master.ipld.ligueylu.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrestataireLocksTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void mutationsOfTheSamePrestataireAreSerialized() {
+        PrestataireLocks locks = new PrestataireLocks(Duration.ofSeconds(5), meterRegistry);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[8];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 200; i++) {
+                    locks.withLock(1L, () -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        inside.decrementAndGet();
+                    });
+                }
+            });
+        }
+        CompletableFuture.allOf(workers).join();
+
+        assertEquals(1, maxInside.get());
+        assertEquals(1_600.0, meterRegistry.counter("prestataire.lock.acquisitions").count());
+        assertEquals(0.0, meterRegistry.get("prestataire.lock.active").gauge().value());
+    }
+
+    @Test
+    void differentPrestatairesDoNotWaitForEachOther() throws Exception {
+        PrestataireLocks locks = new PrestataireLocks(Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> locks.withLock(1L, () -> {
+            holding.countDown();
+            await(release);
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        assertEquals("libre", locks.withLock(2L, () -> "libre"));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void waitingPastTheTimeoutIsRejectedAndCounted() throws Exception {
+        PrestataireLocks locks = new PrestataireLocks(Duration.ofMillis(50), meterRegistry);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> locks.withLock(1L, () -> {
+            holding.countDown();
+            await(release);
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceOverloadedException.class, () -> locks.withLock(1L, () -> "trop tard"));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(1.0, meterRegistry.counter("prestataire.lock.timeouts").count());
+        assertEquals(0.0, meterRegistry.get("prestataire.lock.active").gauge().value());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import master.ipld.ligueylu.MockPrestataireServiceDependencies;
+import master.ipld.ligueylu.TestFixtures;
+import master.ipld.ligueylu.TestMetrics;
+import master.ipld.ligueylu.model.Adresse;
+import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.repository.adresse.AdresseRepository;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.request.ScoreUpdateRequest;
+import master.ipld.ligueylu.request.UpdateAdressPrestRequest;
+import master.ipld.ligueylu.request.UpdatePrestataireRequest;
+import master.ipld.ligueylu.service.authentication.CustomUserDetailsService;
+import master.ipld.ligueylu.service.lock.PrestataireLocks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deux mises a jour concurrentes d'un meme prestataire, chacune dans une requete qui a deja
+ * charge l'entite avant le verrou (open-in-view) : aucune ne doit ecraser l'autre.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@MockPrestataireServiceDependencies
+@Import({PrestataireService.class, PrestataireLocks.class, TestMetrics.class})
+class PrestataireConcurrentUpdatesTest {
+    @Autowired
+    private PrestataireService prestataireService;
+    @Autowired
+    private PrestataireRepository prestataireRepository;
+    @Autowired
+    private AdresseRepository adresseRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private PrestataireSuggestionIndex suggestionIndex;
+
+    @AfterEach
+    void cleanUp() {
+        prestataireRepository.deleteAll();
+        adresseRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentScoreAndAddressUpdatesAreBothKept() throws Exception {
+        Long id = prestataireRepository.save(TestFixtures.prestataire("plombier@ligueylu.sn", "Moussa Diop")).getId();
+        Adresse adresse = adresseRepository.save(new Adresse(12, "10200", "Dakar", "Senegal", "Rue 10"));
+        ScoreUpdateRequest score = new ScoreUpdateRequest();
+        score.setPrestataireId(id);
+        score.setNewScore(4.5);
+        UpdateAdressPrestRequest nouvelleAdresse = new UpdateAdressPrestRequest();
+        nouvelleAdresse.setPrestataireId(id);
+        nouvelleAdresse.setAdresse(adresse);
+
+        CyclicBarrier loaded = new CyclicBarrier(2);
+        CompletableFuture<Void> scoreUpdate = CompletableFuture.runAsync(
+                () -> inRequest(id, loaded, p -> prestataireService.updateScore(score)));
+        CompletableFuture<Void> adresseUpdate = CompletableFuture.runAsync(
+                () -> inRequest(id, loaded, p -> prestataireService.updateAdressePrestataire(nouvelleAdresse)));
+        CompletableFuture.allOf(scoreUpdate, adresseUpdate).get(30, TimeUnit.SECONDS);
+
+        Prestataire stored = prestataireRepository.findById(id).orElseThrow();
+        assertEquals(4.5, stored.getScore(), 1e-9);
+        assertNotNull(stored.getAdresse());
+        assertEquals(adresse.getId(), stored.getAdresse().getId());
+    }
+
+    @Test
+    void cachedCredentialsAreEvictedOnlyOnceTheUpdateIsCommitted() {
+        Long id = prestataireRepository.save(TestFixtures.prestataire("ancien@ligueylu.sn", "Moussa Diop")).getId();
+        when(passwordEncoder.encode(any())).thenReturn("nouveau-hash");
+        List<String> evictedAfterCommit = new ArrayList<>();
+        doAnswer(invocation -> {
+            // une connexion a cet instant relirait la base : elle doit deja voir le nouvel email
+            Prestataire stored = prestataireRepository.findById(id).orElseThrow();
+            if (!TransactionSynchronizationManager.isActualTransactionActive()
+                    && stored.getEmail().equals("nouveau@ligueylu.sn")) {
+                evictedAfterCommit.add(invocation.getArgument(0));
+            }
+            return null;
+        }).when(userDetailsService).evict(anyString());
+        UpdatePrestataireRequest request = new UpdatePrestataireRequest();
+        request.setEmail("nouveau@ligueylu.sn");
+        request.setNomComplet("Moussa Diop");
+        request.setPassword("nouveaumdp1");
+        request.setTelephone("771234567");
+
+        prestataireService.updatePrestataire(request, id);
+
+        assertEquals(List.of("ancien@ligueylu.sn", "nouveau@ligueylu.sn"), evictedAfterCommit);
+    }
+
+    @Test
+    void rolledBackRenameIsNotIndexed() {
+        prestataireRepository.save(TestFixtures.prestataire("pris@ligueylu.sn", "Awa Ndiaye"));
+        Long id = prestataireRepository.save(TestFixtures.prestataire("libre@ligueylu.sn", "Moussa Diop")).getId();
+        when(passwordEncoder.encode(any())).thenReturn("nouveau-hash");
+        UpdatePrestataireRequest request = new UpdatePrestataireRequest();
+        request.setEmail("pris@ligueylu.sn");
+        request.setNomComplet("Moussa Sarr");
+        request.setPassword("nouveaumdp1");
+        request.setTelephone("771234567");
+
+        // email deja pris : la contrainte d'unicite annule la transaction
+        assertThrows(RuntimeException.class, () -> prestataireService.updatePrestataire(request, id));
+
+        verify(suggestionIndex, never()).putPrestataire(anyLong(), anyString());
+        assertEquals("Moussa Diop", prestataireRepository.findById(id).orElseThrow().getNomComplet());
+    }
+
+    /**
+     * Simule une requete open-in-view : un EntityManager lie au thread, qui charge le prestataire
+     * avant la mise a jour, puis attend que l'autre requete en ait fait autant.
+     */
+    private void inRequest(Long id, CyclicBarrier loaded, Consumer<Prestataire> update) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            Prestataire prestataire = prestataireService.getPrestataireById(id);
+            loaded.await(10, TimeUnit.SECONDS);
+            update.accept(prestataire);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+}
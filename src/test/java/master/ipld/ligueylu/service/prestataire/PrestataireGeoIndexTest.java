@@ -0,0 +1,128 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PrestataireGeoIndexTest {
+    // Dakar, Plateau
+    private static final double LAT = 14.6690;
+    private static final double LON = -17.4380;
+
+    private final PrestataireRepository prestataireRepository = mock(PrestataireRepository.class);
+    private final PrestataireGeoIndex index = new PrestataireGeoIndex(prestataireRepository);
+
+    @Test
+    void nearestSortsByDistanceWithinTheRadius() {
+        index.put(1L, LAT + 0.05, LON);
+        index.put(2L, LAT + 0.01, LON);
+        index.put(3L, LAT + 0.5, LON);
+
+        List<PrestataireGeoIndex.Hit> hits = index.nearest(LAT, LON, 10, 10, id -> true);
+
+        assertEquals(List.of(2L, 1L), ids(hits));
+        assertEquals(1.11, hits.get(0).distanceKm(), 0.01);
+    }
+
+    @Test
+    void filterAndLimitApply() {
+        index.put(1L, LAT + 0.01, LON);
+        index.put(2L, LAT + 0.02, LON);
+        index.put(3L, LAT + 0.03, LON);
+
+        assertEquals(List.of(1L), ids(index.nearest(LAT, LON, 10, 1, id -> true)));
+        assertEquals(List.of(2L, 3L), ids(index.nearest(LAT, LON, 10, 10, id -> id != 1L)));
+    }
+
+    @Test
+    void movedAndRemovedPrestatairesLeaveTheirOldCell() {
+        index.put(1L, LAT, LON);
+        index.put(1L, LAT + 1, LON);
+        index.put(2L, LAT, LON);
+        index.remove(2L);
+        index.put(3L, null, null);
+
+        assertTrue(index.nearest(LAT, LON, 5, 10, id -> true).isEmpty());
+        assertEquals(List.of(1L), ids(index.nearest(LAT + 1, LON, 5, 10, id -> true)));
+    }
+
+    @Test
+    void nearestAcrossACellEdgeBeatsAFartherPointInTheSameCell() {
+        // juste au nord d'un bord de cellule (14.65)
+        double edge = 14.65;
+        index.put(1L, edge + 0.04, LON + 0.001);
+        index.put(2L, edge - 0.001, LON + 0.001);
+
+        assertEquals(List.of(2L), ids(index.nearest(edge + 0.001, LON + 0.001, 50, 1, id -> true)));
+    }
+
+    @Test
+    void searchWidensUntilNoUnscannedCellCanHoldACloserPoint() {
+        // 1 : en diagonale (~7 km), dans le premier palier ; 2 : plein nord (~6 km), au-dela
+        index.put(1L, LAT + 0.045, LON + 0.046);
+        index.put(2L, LAT + 0.054, LON);
+
+        List<PrestataireGeoIndex.Hit> hits = index.nearest(LAT, LON, 50, 1, id -> true);
+
+        assertEquals(List.of(2L), ids(hits));
+        assertEquals(6.0, hits.get(0).distanceKm(), 0.1);
+    }
+
+    @Test
+    void radiusStillBoundsTheResult() {
+        index.put(1L, LAT + 0.2, LON);
+
+        assertTrue(index.nearest(LAT, LON, 20, 5, id -> true).isEmpty());
+        assertEquals(List.of(1L), ids(index.nearest(LAT, LON, 25, 5, id -> true)));
+    }
+
+    @Test
+    void neighboursAcrossTheAntimeridianAreFound() {
+        index.put(1L, -16.5, -179.99);
+        index.put(2L, -16.5, 180.0);
+        index.put(3L, -16.5, 179.5);
+
+        List<PrestataireGeoIndex.Hit> hits = index.nearest(-16.5, 179.99, 100, 10, id -> true);
+
+        assertEquals(List.of(2L, 1L, 3L), ids(hits));
+        assertEquals(2.13, hits.get(1).distanceKm(), 0.01);
+        assertEquals(List.of(1L, 2L), ids(index.nearest(-16.5, -179.993, 10, 10, id -> true)));
+    }
+
+    @Test
+    void searchNearAPoleCoversEveryLongitude() {
+        index.put(1L, 89.99, 0.0);
+        index.put(2L, 89.99, 179.0);
+
+        assertEquals(List.of(1L, 2L), ids(index.nearest(89.99, 1.0, 5, 10, id -> true)));
+    }
+
+    @Test
+    void warmUpDoesNotOverwriteChangesMadeWhileLoading() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, LAT, LON});
+        rows.add(new Object[]{2L, LAT, LON});
+        when(prestataireRepository.findActiveCoordinates()).thenAnswer(invocation -> {
+            // suppression et demenagement valides apres la lecture
+            index.remove(1L);
+            index.put(2L, LAT + 1, LON);
+            return rows;
+        });
+
+        index.warmUp();
+
+        assertTrue(index.nearest(LAT, LON, 5, 10, id -> true).isEmpty());
+        assertEquals(List.of(2L), ids(index.nearest(LAT + 1, LON, 5, 10, id -> true)));
+    }
+
+    private static List<Long> ids(List<PrestataireGeoIndex.Hit> hits) {
+        return hits.stream().map(PrestataireGeoIndex.Hit::prestataireId).toList();
+    }
+}
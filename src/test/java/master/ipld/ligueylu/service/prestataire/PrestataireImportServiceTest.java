@@ -0,0 +1,91 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import master.ipld.ligueylu.model.Specialite;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.repository.specialite.SpecialiteRepository;
+import master.ipld.ligueylu.response.ImportReport;
+import master.ipld.ligueylu.service.authentication.EmailExistenceIndex;
+import master.ipld.ligueylu.service.specialite.SpecialiteCounters;
+import master.ipld.ligueylu.service.specialite.SpecialiteSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PrestataireImportService.class, EmailExistenceIndex.class, SpecialiteSearchIndex.class,
+        SpecialiteCounters.class, PrestataireSuggestionIndex.class, ScoreLeaderboard.class,
+        JacksonAutoConfiguration.class})
+class PrestataireImportServiceTest {
+    @Autowired
+    private PrestataireImportService importService;
+    @Autowired
+    private PrestataireRepository prestataireRepository;
+    @Autowired
+    private SpecialiteRepository specialiteRepository;
+    @Autowired
+    private SpecialiteCounters specialiteCounters;
+    @Autowired
+    private SpecialiteSearchIndex specialiteSearchIndex;
+
+    @AfterEach
+    void cleanUp() {
+        prestataireRepository.deleteAll();
+        specialiteRepository.deleteAll();
+    }
+
+    @Test
+    void nullListsAreEmptyAndNullElementsAreRejectedPerRow() throws IOException {
+        ImportReport report = importNdjson(
+                "{\"email\":\"awa@agence.sn\",\"nomComplet\":\"Awa Ndiaye\",\"password\":\"motdepasse1\","
+                        + "\"specialites\":null,\"services\":null}",
+                "{\"email\":\"moussa@agence.sn\",\"nomComplet\":\"Moussa Diop\",\"password\":\"motdepasse1\","
+                        + "\"specialites\":[null]}",
+                "{\"email\":\"fatou@agence.sn\",\"nomComplet\":\"Fatou Sarr\",\"password\":\"motdepasse1\","
+                        + "\"services\":[null]}");
+
+        assertEquals(1, report.getLignesImportees());
+        assertEquals(2, report.getLignesRejetees());
+        assertEquals(List.of("Specialite vide", "Service invalide"),
+                report.getErreurs().stream().map(ImportReport.Erreur::message).toList());
+    }
+
+    @Test
+    void existingSpecialiteIsCountedUnderItsStoredLibelle() throws IOException {
+        Specialite plomberie = new Specialite();
+        plomberie.setLibelle("Plomberie");
+        specialiteRepository.save(plomberie);
+
+        ImportReport report = importNdjson(
+                "{\"email\":\"awa@agence.sn\",\"nomComplet\":\"Awa Ndiaye\",\"password\":\"motdepasse1\","
+                        + "\"specialites\":[\"plomberie\"]}",
+                "{\"email\":\"moussa@agence.sn\",\"nomComplet\":\"Moussa Diop\",\"password\":\"motdepasse1\","
+                        + "\"specialites\":[\"PLOMBERIE\"]}");
+
+        assertEquals(2, report.getLignesImportees());
+        assertEquals(Map.of("Plomberie", 2L), specialiteCounters.snapshot());
+        assertEquals(2, specialiteSearchIndex.search("plomb").size());
+        assertEquals(Set.of("Plomberie"), Set.copyOf(specialiteRepository.findLinkedLibelles()));
+    }
+
+    private ImportReport importNdjson(String... lines) throws IOException {
+        byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return importService.importPrestataires(new ByteArrayInputStream(body), PrestataireImportReader.Format.NDJSON);
+    }
+}
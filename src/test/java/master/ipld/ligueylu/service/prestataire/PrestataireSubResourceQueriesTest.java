@@ -0,0 +1,136 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.EntityManagerFactory;
+import master.ipld.ligueylu.MockPrestataireServiceDependencies;
+import master.ipld.ligueylu.TestFixtures;
+import master.ipld.ligueylu.TestMetrics;
+import master.ipld.ligueylu.dto.ReservationDto;
+import master.ipld.ligueylu.dto.ServiceDto;
+import master.ipld.ligueylu.dto.SpecialiteDto;
+import master.ipld.ligueylu.exception.ResourceNotFoundException;
+import master.ipld.ligueylu.model.Prestataire;
+import master.ipld.ligueylu.model.Reservation;
+import master.ipld.ligueylu.model.Service;
+import master.ipld.ligueylu.model.Specialite;
+import master.ipld.ligueylu.response.CursorPage;
+import master.ipld.ligueylu.service.lock.PrestataireLocks;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Chaque sous-ressource d'un prestataire, telle que l'API la renvoie (service puis
+ * serialisation JSON), doit etre lue en une seule requete SQL.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@MockPrestataireServiceDependencies
+@Import({PrestataireService.class, PrestataireLocks.class, TestMetrics.class})
+class PrestataireSubResourceQueriesTest {
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PrestataireService prestataireService;
+
+    private Long prestataireId;
+    private Long sansActiviteId;
+
+    @BeforeEach
+    void setUp() {
+        Prestataire prestataire = TestFixtures.prestataire("plombier@ligueylu.sn", "Moussa Diop");
+        for (String libelle : List.of("Plomberie", "Chauffe-eau", "Sanitaire")) {
+            Specialite specialite = new Specialite();
+            specialite.setLibelle(libelle);
+            prestataire.getSpecialites().add(specialite);
+        }
+        entityManager.persist(prestataire);
+        for (int i = 0; i < 3; i++) {
+            Service service = new Service();
+            service.setDescription("Service " + i);
+            service.setPrestataire(prestataire);
+            entityManager.persist(service);
+
+            Reservation reservation = new Reservation();
+            reservation.setLibelle("Reservation " + i);
+            reservation.setPrestataire(prestataire);
+            entityManager.persist(reservation);
+        }
+        Prestataire sansActivite = TestFixtures.prestataire("peintre@ligueylu.sn", "Fatou Sarr");
+        entityManager.persist(sansActivite);
+        entityManager.flush();
+        entityManager.clear();
+        prestataireId = prestataire.getId();
+        sansActiviteId = sansActivite.getId();
+    }
+
+    @Test
+    void specialitesAreReadInOneStatement() {
+        List<SpecialiteDto> specialites = countingStatements(1,
+                () -> prestataireService.getSpecialitesFromPrestataire(prestataireId));
+        assertEquals(3, specialites.size());
+    }
+
+    @Test
+    void servicesAreReadInOneStatement() {
+        List<ServiceDto> services = countingStatements(1,
+                () -> prestataireService.getServicesByPrestataire(prestataireId));
+        assertEquals(3, services.size());
+    }
+
+    @Test
+    void reservationsAreReadInOneStatement() {
+        List<ReservationDto> reservations = countingStatements(1,
+                () -> prestataireService.getReservationsByPrestataire(prestataireId));
+        assertEquals(3, reservations.size());
+    }
+
+    @Test
+    void reservationPageIsReadInOneStatement() {
+        CursorPage<ReservationDto> page = countingStatements(1,
+                () -> prestataireService.getReservationsByPrestataire(prestataireId, null, 2));
+        assertEquals(2, page.getItems().size());
+    }
+
+    @Test
+    void emptyListAddsOnlyTheExistenceCheck() {
+        List<ServiceDto> services = countingStatements(2,
+                () -> prestataireService.getServicesByPrestataire(sansActiviteId));
+        assertEquals(0, services.size());
+        assertThrows(ResourceNotFoundException.class, () -> prestataireService.getServicesByPrestataire(-1L));
+    }
+
+    /** Compte les requetes du service et de la serialisation de sa reponse, comme dans le controleur. */
+    private <T> T countingStatements(long expected, Supplier<T> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = call.get();
+        try {
+            objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount(), "Nombre de requetes SQL");
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import master.ipld.ligueylu.dto.SuggestionDto;
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.repository.specialite.SpecialiteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PrestataireSuggestionIndexTest {
+    private final PrestataireSuggestionIndex index = new PrestataireSuggestionIndex(null, null);
+
+    @Test
+    void exactPrefixRanksBeforeShorterTypoMatch() {
+        index.putPrestataire(1L, "Plot Diallo");
+        index.putSpecialite("Plomberie");
+
+        assertEquals(List.of("Plomberie", "Plot Diallo"), labels(index.suggest("plom", 10)));
+    }
+
+    @Test
+    void toleratesTyposAndAccents() {
+        index.putSpecialite("Électricité");
+        index.putPrestataire(7L, "Aïssatou Ndiaye");
+
+        assertEquals(List.of("Électricité"), labels(index.suggest("electrisite", 10)));
+        assertEquals(List.of("Aïssatou Ndiaye"), labels(index.suggest("aisatou", 10)));
+    }
+
+    @Test
+    void shortQueriesMatchOnlyExactPrefixes() {
+        index.putSpecialite("Plomberie");
+
+        assertTrue(index.suggest("plx", 10).isEmpty());
+        assertEquals(List.of("Plomberie"), labels(index.suggest("plo", 10)));
+    }
+
+    @Test
+    void equalDistancesPreferShorterTerms() {
+        index.putSpecialite("Maconnerie generale");
+        index.putSpecialite("Macon");
+
+        assertEquals(List.of("Macon", "Maconnerie generale"), labels(index.suggest("maco", 10)));
+    }
+
+    @Test
+    void exactPrefixSurvivesTheCollectionCap() {
+        // 600 termes a une faute de "plom", alphabetiquement avant "plomberie"
+        for (long id = 0; id < 600; id++) {
+            index.putPrestataire(id, String.format("plam%04d", id));
+        }
+        index.putSpecialite("Plomberie");
+
+        assertEquals("Plomberie", index.suggest("plom", 5).get(0).getLabel());
+    }
+
+    @Test
+    void removedPrestataireIsNoLongerSuggested() {
+        index.putPrestataire(3L, "Moussa Diop");
+        index.putPrestataire(3L, "Moussa Sarr");
+
+        assertEquals(List.of("Moussa Sarr"), labels(index.suggest("moussa", 10)));
+        index.removePrestataire(3L);
+        assertTrue(index.suggest("moussa", 10).isEmpty());
+    }
+
+    @Test
+    void removingATermKeepsItsNeighbours() {
+        index.putPrestataire(1L, "Moussa");
+        index.putPrestataire(2L, "Mousse");
+        index.putPrestataire(3L, "Mous");
+
+        index.removePrestataire(2L);
+        index.removePrestataire(3L);
+        index.putPrestataire(4L, "Moustapha");
+
+        assertEquals(List.of("Moussa", "Moustapha"), labels(index.suggest("mous", 10)));
+        // la faute porte sur un caractere au milieu d'une arete refusionnee
+        assertEquals(List.of("Moussa"), labels(index.suggest("moissa", 10)));
+        index.removePrestataire(1L);
+        index.removePrestataire(4L);
+        assertTrue(index.suggest("mo", 10).isEmpty());
+    }
+
+    @Test
+    void removedSpecialiteIsNoLongerSuggested() {
+        index.putSpecialite("Plomberie sanitaire");
+        index.putSpecialite("Plomberie");
+
+        index.removeSpecialite("plomberie sanitaire");
+
+        assertEquals(List.of("Plomberie"), labels(index.suggest("plomb", 10)));
+        assertTrue(index.suggest("sanitaire", 10).isEmpty());
+    }
+
+    @Test
+    void warmUpKeepsChangesMadeWhileTheDatabaseWasRead() {
+        PrestataireRepository prestataireRepository = mock(PrestataireRepository.class);
+        SpecialiteRepository specialiteRepository = mock(SpecialiteRepository.class);
+        PrestataireSuggestionIndex loading = new PrestataireSuggestionIndex(prestataireRepository, specialiteRepository);
+        when(prestataireRepository.findAllIdsAndNames()).thenAnswer(invocation -> {
+            // lecture anterieure au renommage de 1 et a la suppression de 2
+            loading.putPrestataire(1L, "Moussa Sarr");
+            loading.removePrestataire(2L);
+            loading.removeSpecialite("Menuiserie");
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{1L, "Moussa Diop"});
+            rows.add(new Object[]{2L, "Moussa Ndiaye"});
+            rows.add(new Object[]{3L, "Moussa Fall"});
+            return rows;
+        });
+        when(specialiteRepository.findLinkedLibelles()).thenReturn(List.of("Menuiserie", "Maconnerie"));
+
+        loading.warmUp();
+
+        assertEquals(List.of("Moussa Fall", "Moussa Sarr"), labels(loading.suggest("moussa", 10)));
+        assertEquals(List.of("Maconnerie"), labels(loading.suggest("m", 10)).stream()
+                .filter(label -> !label.startsWith("Moussa")).toList());
+    }
+
+    private static List<String> labels(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::getLabel).toList();
+    }
+}
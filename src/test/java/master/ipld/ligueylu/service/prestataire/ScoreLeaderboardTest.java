@@ -0,0 +1,144 @@
+package master.ipld.ligueylu.service.prestataire;
+
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import master.ipld.ligueylu.util.Cursors;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScoreLeaderboardTest {
+    private final PrestataireRepository prestataireRepository = mock(PrestataireRepository.class);
+    private final ScoreLeaderboard leaderboard = new ScoreLeaderboard(prestataireRepository);
+
+    @Test
+    void warmUpOrdersByScoreThenId() {
+        warmUp(new Object[]{1L, 3.0}, new Object[]{2L, 4.5}, new Object[]{3L, 3.0}, new Object[]{4L, 1.0});
+
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(leaderboard.top(10)));
+        assertEquals(1, leaderboard.rank(2L));
+        assertEquals(3, leaderboard.rank(3L));
+        assertEquals(-1, leaderboard.rank(99L));
+    }
+
+    @Test
+    void pagesResumeAfterTheCursorAndStopAtTheThreshold() {
+        warmUp(new Object[]{1L, 5.0}, new Object[]{2L, 4.0}, new Object[]{3L, 4.0}, new Object[]{4L, 2.0});
+
+        List<ScoreLeaderboard.Entry> first = leaderboard.page(3.0, null, 2);
+        ScoreLeaderboard.Entry last = first.get(first.size() - 1);
+        List<ScoreLeaderboard.Entry> second = leaderboard.page(3.0, new Cursors.ScoreCursor(last.score(), last.prestataireId()), 2);
+
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(List.of(3L), ids(second));
+        assertEquals(3, leaderboard.countAbove(3.0));
+        assertEquals(1, leaderboard.countAbove(4.0));
+    }
+
+    @Test
+    void updateMovesInsertsAndRemoves() {
+        warmUp(new Object[]{1L, 3.0}, new Object[]{2L, 4.0});
+
+        leaderboard.update(1L, 4.5);
+        leaderboard.update(5L, 3.5);
+        leaderboard.remove(2L);
+
+        assertEquals(List.of(1L, 5L), ids(leaderboard.top(10)));
+        assertEquals(4.5, leaderboard.scoreOf(1L));
+        assertNull(leaderboard.scoreOf(2L));
+    }
+
+    @Test
+    void updateAllMatchesOneByOneUpdates() {
+        Random random = new Random(42);
+        Object[][] rows = new Object[200][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{(long) i * 2, (double) random.nextInt(50) / 10};
+        }
+        warmUp(rows);
+        ScoreLeaderboard expected = new ScoreLeaderboard(prestataireRepository);
+        expected.warmUp();
+
+        long[] ids = new long[60];
+        double[] scores = new double[60];
+        for (int k = 0; k < ids.length; k++) {
+            // moitie de prestataires existants, moitie de nouveaux (ids impairs)
+            ids[k] = k % 2 == 0 ? k * 6L : k * 6L + 1;
+            scores[k] = (double) random.nextInt(50) / 10;
+            expected.update(ids[k], scores[k]);
+        }
+        leaderboard.updateAll(ids, scores);
+
+        assertEquals(expected.top(1_000), leaderboard.top(1_000));
+        assertEquals(reference(rows, ids, scores), ids(leaderboard.top(1_000)));
+        for (long id : ids) {
+            assertEquals(expected.rank(id), leaderboard.rank(id));
+        }
+    }
+
+    @Test
+    void updatesReceivedWhileLoadingAreReplayedOnTheLoadedBoard() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 2.0});
+        rows.add(new Object[]{2L, 3.0});
+        when(prestataireRepository.findAllScores()).thenAnswer(invocation -> {
+            // evaluation et suppression validees apres la lecture des scores
+            leaderboard.update(1L, 4.0);
+            leaderboard.remove(2L);
+            return rows;
+        });
+
+        leaderboard.warmUp();
+
+        assertEquals(List.of(1L), ids(leaderboard.top(10)));
+        assertEquals(4.0, leaderboard.scoreOf(1L));
+    }
+
+    @Test
+    void rebuildReplacesEntriesThatMissedTheirUpdates() {
+        warmUp(new Object[]{1L, 3.0}, new Object[]{2L, 4.0});
+        // un lot en echec a perdu le nouveau score de 1 et la suppression de 2
+        List<Object[]> stored = new ArrayList<>();
+        stored.add(new Object[]{1L, 4.8});
+        when(prestataireRepository.findAllScores()).thenReturn(stored);
+
+        leaderboard.rebuild();
+
+        assertEquals(List.of(1L), ids(leaderboard.top(10)));
+        assertEquals(4.8, leaderboard.scoreOf(1L));
+    }
+
+    private void warmUp(Object[]... rows) {
+        List<Object[]> sortedById = new ArrayList<>(List.of(rows));
+        sortedById.sort(Comparator.comparingLong(row -> (Long) row[0]));
+        when(prestataireRepository.findAllScores()).thenReturn(sortedById);
+        leaderboard.warmUp();
+    }
+
+    private static List<Long> reference(Object[][] rows, long[] ids, double[] scores) {
+        Map<Long, Double> all = new HashMap<>();
+        for (Object[] row : rows) {
+            all.put((Long) row[0], (Double) row[1]);
+        }
+        for (int k = 0; k < ids.length; k++) {
+            all.put(ids[k], scores[k]);
+        }
+        return all.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static List<Long> ids(List<ScoreLeaderboard.Entry> entries) {
+        return entries.stream().map(ScoreLeaderboard.Entry::prestataireId).toList();
+    }
+}
@@ -0,0 +1,90 @@
+package master.ipld.ligueylu.service.reservation;
+
+import master.ipld.ligueylu.repository.reservation.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityBitmapsTest {
+    private static final ZoneId ZONE = ZoneId.of("Africa/Dakar");
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    private ReservationRepository reservationRepository;
+    private AvailabilityBitmaps bitmaps;
+    private long tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        bitmaps = new AvailabilityBitmaps(reservationRepository, ZONE.getId());
+        tomorrow = LocalDate.now(ZONE).plusDays(1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void slotTouchedPartiallyIsBusy() {
+        ReservationSlotIndex.Agenda agenda = new ReservationSlotIndex.Agenda();
+        // 10h05 - 10h20 occupe les creneaux 10h00 et 10h15
+        agenda.add(tomorrow + 10 * HOUR + 5 * MINUTE, tomorrow + 10 * HOUR + 20 * MINUTE, 1L);
+        bitmaps.load(1L, agenda);
+
+        assertEquals(List.of(), bitmaps.free(List.of(1L), tomorrow + 10 * HOUR, tomorrow + 10 * HOUR + 5 * MINUTE));
+        assertEquals(List.of(), bitmaps.free(List.of(1L), tomorrow + 10 * HOUR + 25 * MINUTE, tomorrow + 11 * HOUR));
+        assertEquals(List.of(1L), bitmaps.free(List.of(1L), tomorrow + 10 * HOUR + 30 * MINUTE, tomorrow + 11 * HOUR));
+    }
+
+    @Test
+    void cancellingKeepsSlotsSharedWithAnotherReservation() {
+        ReservationSlotIndex.Agenda agenda = new ReservationSlotIndex.Agenda();
+        agenda.add(tomorrow + 9 * HOUR, tomorrow + 9 * HOUR + 10 * MINUTE, 1L);
+        agenda.add(tomorrow + 9 * HOUR + 10 * MINUTE, tomorrow + 9 * HOUR + 40 * MINUTE, 2L);
+        bitmaps.load(1L, agenda);
+
+        agenda.remove(tomorrow + 9 * HOUR + 10 * MINUTE, 2L);
+        bitmaps.refresh(1L, tomorrow + 9 * HOUR + 10 * MINUTE, tomorrow + 9 * HOUR + 40 * MINUTE, agenda);
+
+        assertEquals(List.of(), bitmaps.free(List.of(1L), tomorrow + 9 * HOUR, tomorrow + 9 * HOUR + 15 * MINUTE));
+        assertEquals(List.of(1L), bitmaps.free(List.of(1L), tomorrow + 9 * HOUR + 15 * MINUTE, tomorrow + 10 * HOUR));
+    }
+
+    @Test
+    void reservationsSpanningMidnightMarkBothDays() {
+        ReservationSlotIndex.Agenda agenda = new ReservationSlotIndex.Agenda();
+        agenda.add(tomorrow + 23 * HOUR + 30 * MINUTE, tomorrow + 24 * HOUR + 30 * MINUTE, 1L);
+        bitmaps.load(1L, agenda);
+
+        assertEquals(List.of(2L), bitmaps.free(List.of(1L, 2L), tomorrow + 23 * HOUR + 45 * MINUTE, tomorrow + 24 * HOUR));
+        assertEquals(List.of(2L), bitmaps.free(List.of(1L, 2L), tomorrow + 24 * HOUR, tomorrow + 24 * HOUR + 15 * MINUTE));
+        bitmaps.remove(1L);
+        assertEquals(List.of(1L, 2L), bitmaps.free(List.of(1L, 2L), tomorrow + 23 * HOUR, tomorrow + 25 * HOUR));
+    }
+
+    @Test
+    void reconcileKeepsChangesMadeWhileTheDatabaseWasRead() {
+        ReservationSlotIndex.Agenda booked = new ReservationSlotIndex.Agenda();
+        booked.add(tomorrow + 10 * HOUR, tomorrow + 11 * HOUR, 10L);
+        when(reservationRepository.findAllUpcomingSlots(any())).thenAnswer(invocation -> {
+            // lecture anterieure aux deux modifications concurrentes
+            bitmaps.refresh(1L, tomorrow + 10 * HOUR, tomorrow + 11 * HOUR, booked);
+            bitmaps.remove(2L);
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{2L, new Date(tomorrow + 14 * HOUR), new Date(tomorrow + 15 * HOUR)});
+            return rows;
+        });
+
+        bitmaps.reconcile();
+
+        assertEquals(List.of(2L), bitmaps.free(List.of(1L, 2L), tomorrow + 10 * HOUR, tomorrow + 11 * HOUR));
+        assertEquals(List.of(1L, 2L), bitmaps.free(List.of(1L, 2L), tomorrow + 14 * HOUR, tomorrow + 15 * HOUR));
+    }
+}
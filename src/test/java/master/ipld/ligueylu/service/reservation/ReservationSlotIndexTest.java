@@ -0,0 +1,79 @@
+package master.ipld.ligueylu.service.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationSlotIndexTest {
+    private final ReservationSlotIndex index = new ReservationSlotIndex();
+
+    @Test
+    void overlapChecksTouchOnlyTheNeighbouringSlots() {
+        ReservationSlotIndex.Agenda agenda = index.agenda(1L);
+        agenda.add(100, 200, 1L);
+        agenda.add(300, 400, 2L);
+
+        assertTrue(agenda.overlaps(150, 160));
+        assertTrue(agenda.overlaps(50, 101));
+        assertTrue(agenda.overlaps(199, 300));
+        assertTrue(agenda.overlaps(250, 301));
+        assertFalse(agenda.overlaps(200, 300));
+        assertFalse(agenda.overlaps(0, 100));
+        assertFalse(agenda.overlaps(400, 500));
+    }
+
+    @Test
+    void removeOnlyDropsTheMatchingReservation() {
+        ReservationSlotIndex.Agenda agenda = index.agenda(1L);
+        agenda.add(100, 200, 1L);
+
+        agenda.remove(100, 99L);
+        assertEquals(1, agenda.size());
+        agenda.remove(100, 1L);
+        assertEquals(0, agenda.size());
+    }
+
+    @Test
+    void pruneForgetsFinishedSlotsInOrder() {
+        ReservationSlotIndex.Agenda agenda = index.agenda(1L);
+        agenda.add(100, 200, 1L);
+        agenda.add(300, 400, 2L);
+        agenda.add(500, 600, 3L);
+
+        agenda.prune(400);
+
+        List<Long> remaining = new ArrayList<>();
+        agenda.forEach((start, end, reservationId) -> remaining.add(reservationId));
+        assertEquals(List.of(3L), remaining);
+    }
+
+    @Test
+    void versionIsResetAndInvalidated() {
+        ReservationSlotIndex.Agenda agenda = index.agenda(1L);
+        assertEquals(-1, agenda.version());
+        agenda.add(100, 200, 1L);
+
+        agenda.reset(4);
+        assertEquals(4, agenda.version());
+        assertEquals(0, agenda.size());
+        agenda.invalidate();
+        assertEquals(-1, agenda.version());
+    }
+
+    @Test
+    void agendasArePerPrestataireAndEvictable() {
+        ReservationSlotIndex.Agenda first = index.agenda(1L);
+
+        assertSame(first, index.agenda(1L));
+        assertNotSame(first, index.agenda(2L));
+        index.evict(1L);
+        assertNotSame(first, index.agenda(1L));
+    }
+}
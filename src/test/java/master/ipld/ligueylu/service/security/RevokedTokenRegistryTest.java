@@ -0,0 +1,88 @@
+package master.ipld.ligueylu.service.security;
+
+import master.ipld.ligueylu.repository.revokedtoken.RevokedTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Une revocation est gagnee par un seul appelant, meme entre instances, et survit au redemarrage.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RevokedTokenRegistryTest {
+    private static final long HOUR = 3_600_000L;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @AfterEach
+    void cleanUp() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRevocationsOfTheSameJtiHaveASingleWinner() throws Exception {
+        RevokedTokenRegistry instanceA = registry();
+        RevokedTokenRegistry instanceB = registry();
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        List<Callable<Boolean>> refreshes = List.of(
+                () -> instanceA.revoke("jti-1", expiresAt),
+                () -> instanceA.revoke("jti-1", expiresAt),
+                () -> instanceB.revoke("jti-1", expiresAt),
+                () -> instanceB.revoke("jti-1", expiresAt));
+        ExecutorService executor = Executors.newFixedThreadPool(refreshes.size());
+        try {
+            int winners = 0;
+            for (Future<Boolean> result : executor.invokeAll(refreshes)) {
+                winners += result.get() ? 1 : 0;
+            }
+            assertEquals(1, winners);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(instanceA.isRevoked("jti-1"));
+        assertTrue(instanceB.isRevoked("jti-1"));
+    }
+
+    @Test
+    void revocationsAreReloadedAfterARestartAndSyncedAcrossInstances() {
+        RevokedTokenRegistry before = registry();
+        RevokedTokenRegistry otherInstance = registry();
+        assertTrue(before.revoke("jti-2", System.currentTimeMillis() + HOUR));
+
+        assertTrue(registry().isRevoked("jti-2"));
+        assertFalse(otherInstance.isRevoked("jti-2"));
+        otherInstance.sync();
+        assertTrue(otherInstance.isRevoked("jti-2"));
+    }
+
+    @Test
+    void expiredTokensAreNotStored() {
+        RevokedTokenRegistry registry = registry();
+        assertFalse(registry.revoke("jti-3", System.currentTimeMillis() - 1));
+        assertEquals(0, revokedTokenRepository.count());
+    }
+
+    private RevokedTokenRegistry registry() {
+        RevokedTokenRegistry registry = new RevokedTokenRegistry(revokedTokenRepository, 1_000, Duration.ofSeconds(10));
+        registry.load();
+        return registry;
+    }
+}
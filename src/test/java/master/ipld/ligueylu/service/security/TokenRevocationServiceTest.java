@@ -0,0 +1,66 @@
+package master.ipld.ligueylu.service.security;
+
+import master.ipld.ligueylu.repository.utilisateur.UtilisateurRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+    private UtilisateurRepository utilisateurRepository;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        utilisateurRepository = mock(UtilisateurRepository.class);
+        service = new TokenRevocationService(utilisateurRepository);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deletedUserIsRevokedOnlyOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.revokeDeletedUser(7L);
+
+        assertFalse(service.isRevoked(7L, 3));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(service.isRevoked(7L, 3));
+    }
+
+    @Test
+    void rolledBackDeletionRevokesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.revokeDeletedUser(7L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(service.isRevoked(7L, 0));
+    }
+
+    @Test
+    void syncPicksUpVersionsBumpedByAnotherInstance() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{5L, 2});
+        when(utilisateurRepository.findRevokedTokenVersions()).thenReturn(rows);
+
+        service.sync();
+
+        assertTrue(service.isRevoked(5L, 1));
+        assertFalse(service.isRevoked(5L, 2));
+    }
+}
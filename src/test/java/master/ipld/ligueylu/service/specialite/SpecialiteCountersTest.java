@@ -0,0 +1,73 @@
+package master.ipld.ligueylu.service.specialite;
+
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpecialiteCountersTest {
+    private PrestataireRepository prestataireRepository;
+    private SpecialiteCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        prestataireRepository = mock(PrestataireRepository.class);
+        counters = new SpecialiteCounters(prestataireRepository);
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        counters.increment("Plomberie");
+        counters.increment("Menuiserie");
+        when(prestataireRepository.countPrestataireBySpecialites()).thenReturn(rows("Plomberie", 3L));
+
+        counters.reconcile();
+
+        assertEquals(Map.of("Plomberie", 3L), counters.snapshot());
+    }
+
+    @Test
+    void incrementAppliedWhileTheDatabaseIsReadIsNotCountedTwice() {
+        AtomicInteger reads = new AtomicInteger();
+        when(prestataireRepository.countPrestataireBySpecialites()).thenAnswer(invocation -> {
+            if (reads.getAndIncrement() == 0) {
+                // le GROUP BY voit deja le lien, l'evenement est applique juste apres
+                counters.increment("Plomberie");
+            }
+            return rows("Plomberie", 5L);
+        });
+
+        counters.warmUp();
+
+        assertEquals(Map.of("Plomberie", 5L), counters.snapshot());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void libelleTouchedOnEveryPassIsLeftForTheNextRun() {
+        counters.increment("Plomberie");
+        when(prestataireRepository.countPrestataireBySpecialites()).thenAnswer(invocation -> {
+            counters.increment("Plomberie");
+            return rows("Plomberie", 10L);
+        });
+
+        counters.reconcile();
+
+        // trois increments, aucun ecrase par une correction faite sur une lecture perimee
+        assertEquals(Map.of("Plomberie", 4L), counters.snapshot());
+    }
+
+    private static List<Object[]> rows(String libelle, long count) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{libelle, count});
+        return rows;
+    }
+}
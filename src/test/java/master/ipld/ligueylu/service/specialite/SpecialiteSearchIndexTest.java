@@ -0,0 +1,78 @@
+package master.ipld.ligueylu.service.specialite;
+
+import master.ipld.ligueylu.repository.prestataire.PrestataireRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpecialiteSearchIndexTest {
+    private final PrestataireRepository prestataireRepository = mock(PrestataireRepository.class);
+    private final SpecialiteSearchIndex index = new SpecialiteSearchIndex(prestataireRepository);
+
+    @Test
+    void searchIgnoresCaseAndAccentsOnBothSides() {
+        index.add("Électricité", 1L);
+        index.add("Maçonnerie", 2L);
+        index.add("electricite generale", 3L);
+
+        assertEquals(Set.of(1L, 3L), index.search("ELECTRICITE"));
+        assertEquals(Set.of(1L, 3L), index.search("électri"));
+        assertEquals(Set.of(2L), index.search("maconn"));
+        assertEquals(Set.of(2L), index.search("ço"));
+    }
+
+    @Test
+    void removedLinksAndPrestatairesAreNoLongerFound() {
+        index.add("Plomberie", 1L);
+        index.add("Plomberie", 2L);
+        index.add("Peinture", 2L);
+
+        index.remove("PLOMBERIE", 1L);
+        index.removePrestataire(2L);
+
+        assertTrue(index.search("plomb").isEmpty());
+        assertTrue(index.search("peint").isEmpty());
+    }
+
+    @Test
+    void warmUpSkipsLinksChangedWhileLoading() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"Plomberie", 1L});
+        rows.add(new Object[]{"Peinture", 2L});
+        rows.add(new Object[]{"Menuiserie", 3L});
+        when(prestataireRepository.findSpecialiteLibellesWithPrestataireIds()).thenAnswer(invocation -> {
+            // retrait d'un lien et suppression d'un prestataire valides apres la lecture
+            index.remove("Plomberie", 1L);
+            index.removePrestataire(2L);
+            return rows;
+        });
+
+        index.warmUp();
+
+        assertTrue(index.search("plomb").isEmpty());
+        assertTrue(index.search("peint").isEmpty());
+        assertEquals(Set.of(3L), index.search("menuis"));
+        assertTrue(index.isReady());
+    }
+
+    @Test
+    void rebuildDropsLinksThatAreNoLongerStored() {
+        index.add("Plomberie", 1L);
+        index.add("Peinture", 2L);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"Peinture", 2L});
+        when(prestataireRepository.findSpecialiteLibellesWithPrestataireIds()).thenReturn(rows);
+
+        index.rebuild();
+
+        assertTrue(index.search("plomb").isEmpty());
+        assertEquals(Set.of(2L), index.search("peint"));
+    }
+}
@@ -0,0 +1,41 @@
+package master.ipld.ligueylu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainRecordsAndCrLfLineEndings() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("email;nom\r\nawa@ligueylu.sn;Awa\r\n"), ';');
+
+        assertEquals(List.of("email", "nom"), reader.next());
+        assertEquals(List.of("awa@ligueylu.sn", "Awa"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsKeepSeparatorsEscapedQuotesAndNewlines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"a;b\",\"dit \"\"oui\"\"\",\"ligne 1\nligne 2\"\nfin,,\n"), ',');
+
+        assertEquals(List.of("a;b", "dit \"oui\"", "ligne 1\nligne 2"), reader.next());
+        assertEquals(1, reader.recordLine());
+        assertEquals(List.of("fin", "", ""), reader.next());
+        assertEquals(3, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void lastRecordWithoutTrailingNewlineIsRead() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("x,\"y\""), ',');
+
+        assertEquals(List.of("x", "y"), reader.next());
+        assertNull(reader.next());
+    }
+}
@@ -0,0 +1,52 @@
+package master.ipld.ligueylu.util;
+
+import master.ipld.ligueylu.response.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorsTest {
+
+    @Test
+    void idAndScoreCursorsRoundTrip() {
+        assertEquals(42L, Cursors.decodeId(Cursors.encodeId(42L)));
+        assertEquals(new Cursors.ScoreCursor(4.25, 7L), Cursors.decodeScore(Cursors.encodeScore(4.25, 7L)));
+    }
+
+    @Test
+    void missingCursorsStartAtTheBeginning() {
+        assertEquals(0L, Cursors.decodeId(null));
+        assertEquals(0L, Cursors.decodeId(" "));
+        assertNull(Cursors.decodeScore(""));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Cursors.decodeId("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> Cursors.decodeId(Cursors.encodeScore(1.0, 2L)));
+        assertThrows(IllegalArgumentException.class, () -> Cursors.decodeScore(Cursors.encodeId(3L)));
+    }
+
+    @Test
+    void limitIsDefaultedAndCapped() {
+        assertEquals(Cursors.DEFAULT_LIMIT, Cursors.clampLimit(null));
+        assertEquals(Cursors.DEFAULT_LIMIT, Cursors.clampLimit(0));
+        assertEquals(10, Cursors.clampLimit(10));
+        assertEquals(Cursors.MAX_LIMIT, Cursors.clampLimit(10_000));
+    }
+
+    @Test
+    void extraRowOnlySignalsANextPage() {
+        CursorPage<Long> last = Cursors.page(List.of(1L, 2L), 2, Cursors::encodeId);
+        CursorPage<Long> first = Cursors.page(List.of(1L, 2L, 3L), 2, Cursors::encodeId);
+
+        assertEquals(List.of(1L, 2L), last.getItems());
+        assertNull(last.getNext());
+        assertEquals(List.of(1L, 2L), first.getItems());
+        assertEquals(2L, Cursors.decodeId(first.getNext()));
+    }
+}